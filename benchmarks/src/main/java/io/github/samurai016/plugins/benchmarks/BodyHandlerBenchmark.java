@@ -0,0 +1,124 @@
+/*
+ * Maven JRE Plugin
+ * Copyright (c) 2025 Nicolò Rebaioli
+ *
+ * This file is part of Maven JRE Plugin.
+ *
+ * Maven JRE Plugin is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Maven JRE Plugin is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Maven JRE Plugin.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.github.samurai016.plugins.benchmarks;
+
+import io.github.samurai016.plugins.Utils;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of the body handlers wrapping every download<br>
+ * A 16MB body is pushed through the subscribers in chunks of the size used by the JDK HTTP client, without any network.
+ *
+ * @author Nicolò Rebaioli
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BodyHandlerBenchmark {
+    private static final long BODY_SIZE = 16 * 1024 * 1024;
+
+    @Param({"16384"})
+    int chunkSize;
+
+    private List<List<ByteBuffer>> chunks;
+    private final HttpResponse.ResponseInfo info = new ResponseInfo();
+
+    @Setup
+    public void setup() {
+        // The JDK HTTP client delivers the body as lists of buffers
+        chunks = new ArrayList<>();
+        ByteBuffer source = ByteBuffer.allocate(chunkSize * 4);
+        for (long sent = 0; sent < BODY_SIZE; sent += source.capacity()) {
+            List<ByteBuffer> item = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                item.add(source.slice(i * chunkSize, chunkSize));
+            }
+            chunks.add(item);
+        }
+    }
+
+    @Benchmark
+    public Object discarding() throws Exception {
+        return consume(HttpResponse.BodyHandlers.discarding());
+    }
+
+    @Benchmark
+    public Object callback(Blackhole blackhole) throws Exception {
+        return consume(Utils.callbackBodyHandler(Duration.ofSeconds(5), blackhole::consume, HttpResponse.BodyHandlers.discarding()));
+    }
+
+    @Benchmark
+    public Object digest() throws Exception {
+        return consume(Utils.digestBodyHandler(Utils.newSha256(), HttpResponse.BodyHandlers.discarding()));
+    }
+
+    private <T> T consume(HttpResponse.BodyHandler<T> handler) throws Exception {
+        HttpResponse.BodySubscriber<T> subscriber = handler.apply(info);
+        subscriber.onSubscribe(new Flow.Subscription() {
+            @Override
+            public void request(long n) {
+            }
+
+            @Override
+            public void cancel() {
+            }
+        });
+        for (List<ByteBuffer> item : chunks) {
+            for (ByteBuffer buffer : item) {
+                buffer.rewind();
+            }
+            subscriber.onNext(item);
+        }
+        subscriber.onComplete();
+        return subscriber.getBody().toCompletableFuture().get();
+    }
+
+    private static class ResponseInfo implements HttpResponse.ResponseInfo {
+        @Override
+        public int statusCode() {
+            return 200;
+        }
+
+        @Override
+        public HttpHeaders headers() {
+            return HttpHeaders.of(Map.of(), (name, value) -> true);
+        }
+
+        @Override
+        public HttpClient.Version version() {
+            return HttpClient.Version.HTTP_2;
+        }
+    }
+}
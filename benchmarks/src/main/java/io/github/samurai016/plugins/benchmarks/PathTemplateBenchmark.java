@@ -0,0 +1,59 @@
+/*
+ * Maven JRE Plugin
+ * Copyright (c) 2025 Nicolò Rebaioli
+ *
+ * This file is part of Maven JRE Plugin.
+ *
+ * Maven JRE Plugin is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Maven JRE Plugin is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Maven JRE Plugin.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.github.samurai016.plugins.benchmarks;
+
+import io.github.samurai016.plugins.PathTemplate;
+import io.github.samurai016.plugins.adoptium.models.Release;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rendering of the <code>outputdir</code>/<code>outputfilename</code>/<code>unzipto</code> templates,
+ * as done by <code>generatePath</code> for every target
+ *
+ * @author Nicolò Rebaioli
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PathTemplateBenchmark {
+    @Param({
+            "/project/target/jre",
+            "/project/target/jre/{{binary.os}}-{{binary.architecture}}",
+            "/project/target/{{release_name}}/{{binary.package.name}}-{{version.semver}}-{{binary.updated_at}}"
+    })
+    String template;
+
+    private Release release;
+
+    @Setup
+    public void setup() throws Exception {
+        release = Releases.reader().readValue(Releases.json(1));
+    }
+
+    @Benchmark
+    public String render() {
+        return PathTemplate.compile(template).render(release);
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * Maven JRE Plugin
+ * Copyright (c) 2025 Nicolò Rebaioli
+ *
+ * This file is part of Maven JRE Plugin.
+ *
+ * Maven JRE Plugin is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Maven JRE Plugin is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Maven JRE Plugin.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.github.samurai016.plugins.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import io.github.samurai016.plugins.adoptium.models.Release;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deserialization of Adoptium API responses of growing size<br>
+ * Compares a new <code>ObjectMapper</code> per response with a cached <code>ObjectReader</code> reading the body stream.
+ *
+ * @author Nicolò Rebaioli
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReleaseParsingBenchmark {
+    @Param({"1", "100", "1000"})
+    int releases;
+
+    private byte[] json;
+    private ObjectReader reader;
+
+    @Setup
+    public void setup() throws Exception {
+        json = Releases.json(releases);
+        reader = new ObjectMapper().readerFor(Release[].class);
+    }
+
+    @Benchmark
+    public Release[] newObjectMapper() throws Exception {
+        return new ObjectMapper().readValue(new String(json), Release[].class);
+    }
+
+    @Benchmark
+    public Release[] cachedReader() throws Exception {
+        return reader.readValue(new ByteArrayInputStream(json));
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Maven JRE Plugin
+ * Copyright (c) 2025 Nicolò Rebaioli
+ *
+ * This file is part of Maven JRE Plugin.
+ *
+ * Maven JRE Plugin is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Maven JRE Plugin is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Maven JRE Plugin.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.github.samurai016.plugins.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import io.github.samurai016.plugins.adoptium.models.*;
+import io.github.samurai016.plugins.adoptium.models.Package;
+
+import java.util.Date;
+
+/**
+ * Synthetic Adoptium API responses
+ *
+ * @author Nicolò Rebaioli
+ */
+final class Releases {
+    private Releases() {
+    }
+
+    /**
+     * Serialize an array of releases shaped like the responses of the Adoptium API
+     *
+     * @param count The number of releases
+     * @return The JSON response
+     */
+    static byte[] json(int count) throws Exception {
+        Release[] releases = new Release[count];
+        for (int i = 0; i < count; i++) {
+            releases[i] = release(i);
+        }
+        return new ObjectMapper().writeValueAsBytes(releases);
+    }
+
+    /**
+     * @return A reader of a single release, from the first element of a response
+     */
+    static ObjectReader reader() {
+        return new ObjectMapper().readerFor(Release.class).at("/0");
+    }
+
+    private static Release release(int i) {
+        Package pkg = new Package();
+        pkg.name = "OpenJDK21U-jre_x64_linux_hotspot_21.0." + i + "_11.tar.gz";
+        pkg.link = "https://github.com/adoptium/temurin21-binaries/releases/download/jdk-21.0." + i + "%2B11/" + pkg.name;
+        pkg.checksum = "a".repeat(64);
+        pkg.checksum_link = pkg.link + ".sha256.txt";
+        pkg.metadata_link = pkg.link + ".json";
+        pkg.signature_link = pkg.link + ".sig";
+        pkg.size = 51_000_000 + i;
+        pkg.download_count = 1000 + i;
+
+        Binary binary = new Binary();
+        binary.architecture = "x64";
+        binary.os = "linux";
+        binary.image_type = "jre";
+        binary.jvm_impl = "hotspot";
+        binary.heap_size = "normal";
+        binary.project = "jdk";
+        binary.scm_ref = "jdk-21.0." + i + "+11_adopt";
+        binary.updated_at = new Date(1_700_000_000_000L + i);
+        binary.download_count = 1000 + i;
+        binary.pkg = pkg;
+
+        Version version = new Version();
+        version.major = 21;
+        version.security = i;
+        version.build = 11;
+        version.openjdk_version = "21.0." + i + "+11-LTS";
+        version.semver = "21.0." + i + "+11";
+
+        Release release = new Release();
+        release.binary = binary;
+        release.release_name = "jdk-21.0." + i + "+11";
+        release.release_link = "https://github.com/adoptium/temurin21-binaries/releases/tag/jdk-21.0." + i + "%2B11";
+        release.vendor = "eclipse";
+        release.version = version;
+        return release;
+    }
+}
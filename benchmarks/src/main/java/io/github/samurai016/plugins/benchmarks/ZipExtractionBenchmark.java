@@ -0,0 +1,132 @@
+/*
+ * Maven JRE Plugin
+ * Copyright (c) 2025 Nicolò Rebaioli
+ *
+ * This file is part of Maven JRE Plugin.
+ *
+ * Maven JRE Plugin is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Maven JRE Plugin is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Maven JRE Plugin.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.github.samurai016.plugins.benchmarks;
+
+import io.github.samurai016.plugins.Utils;
+import io.github.samurai016.plugins.extract.ZipExtractor;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Extraction of a synthetic JRE-shaped zip archive<br>
+ * The archive mimics a Windows JRE: a single root folder, thousands of small files and one large <code>lib/modules</code>.
+ *
+ * @author Nicolò Rebaioli
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ZipExtractionBenchmark {
+    private static final String ROOT = "jdk-21.0.5+11-jre/";
+    private static final int SMALL_FILES = 3000;
+    private static final int MODULES_SIZE = 64 * 1024 * 1024;
+
+    /**
+     * Extraction threads, 0 means one per available processor
+     */
+    @Param({"1", "0"})
+    int threads;
+
+    private Path directory;
+    private Path archive;
+    private Path destination;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        directory = Files.createTempDirectory("jre-benchmark");
+        archive = directory.resolve("jre.zip");
+        destination = directory.resolve("jre");
+
+        Random random = new Random(42);
+        try (ZipOutputStream zip = new ZipOutputStream(Files.newOutputStream(archive))) {
+            for (int i = 0; i < SMALL_FILES; i++) {
+                String folder = switch (i % 4) {
+                    case 0 -> "bin/";
+                    case 1 -> "lib/";
+                    case 2 -> "legal/java.base/";
+                    default -> "conf/security/policy/";
+                };
+                writeEntry(zip, ROOT + folder + "file" + i, 512 + random.nextInt(16 * 1024), random);
+            }
+            writeEntry(zip, ROOT + "lib/modules", MODULES_SIZE, random);
+        }
+    }
+
+    /**
+     * Every invocation extracts to an empty destination, as a first extraction does, rather than overwriting the previous one
+     */
+    @Setup(Level.Invocation)
+    public void clean() throws IOException {
+        Utils.deleteRecursively(destination);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    @Benchmark
+    public Path extract() throws IOException {
+        new ZipExtractor(true, threads).extract(archive, destination);
+        return destination;
+    }
+
+    @Benchmark
+    public Path extractStream() throws IOException {
+        try (InputStream in = Files.newInputStream(archive)) {
+            new ZipExtractor(true, threads).extract(in, destination);
+        }
+        return destination;
+    }
+
+    /**
+     * Write an entry which compresses roughly like class files: half random bytes, half repeated text
+     */
+    private static void writeEntry(ZipOutputStream zip, String name, int size, Random random) throws IOException {
+        zip.putNextEntry(new ZipEntry(name));
+        byte[] chunk = new byte[8192];
+        byte[] text = "java/lang/Object;Ljava/lang/String;".repeat(128).getBytes();
+        OutputStream out = zip;
+        for (int written = 0; written < size; written += chunk.length) {
+            random.nextBytes(chunk);
+            System.arraycopy(text, 0, chunk, 0, chunk.length / 2);
+            out.write(chunk, 0, Math.min(chunk.length, size - written));
+        }
+        zip.closeEntry();
+    }
+}
@@ -0,0 +1,1072 @@
+/*
+ * Maven JRE Plugin
+ * Copyright (c) 2025 Nicolò Rebaioli
+ *
+ * This file is part of Maven JRE Plugin.
+ *
+ * Maven JRE Plugin is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Maven JRE Plugin is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Maven JRE Plugin.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.github.samurai016.plugins;
+
+import io.github.samurai016.plugins.adoptium.AdoptiumApi;
+import io.github.samurai016.plugins.adoptium.models.*;
+import io.github.samurai016.plugins.adoptium.models.Package;
+import io.github.samurai016.plugins.cache.JreCache;
+import io.github.samurai016.plugins.cache.MetadataCache;
+import io.github.samurai016.plugins.download.Downloader;
+import io.github.samurai016.plugins.download.InFlightDownloads;
+import io.github.samurai016.plugins.download.Mirrors;
+import io.github.samurai016.plugins.download.RequestPolicy;
+import io.github.samurai016.plugins.extract.ArchiveExtractor;
+import io.github.samurai016.plugins.extract.EntryFilter;
+import io.github.samurai016.plugins.extract.ExtractionManifest;
+import io.github.samurai016.plugins.extract.ExtractionStore;
+import io.github.samurai016.plugins.extract.TarGzExtractor;
+import io.github.samurai016.plugins.extract.ZipExtractor;
+import io.github.samurai016.plugins.lock.JreLock;
+import io.github.samurai016.plugins.metrics.BundleMetrics;
+import io.github.samurai016.plugins.metrics.MetricsReport;
+import io.github.samurai016.plugins.repackage.Compression;
+import io.github.samurai016.plugins.repackage.Repackager;
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.logging.Log;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.project.MavenProject;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.http.HttpClient;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Base class of the goals which bundle a JRE.<br>
+ * It holds the shared configuration and the resolve, download and unzip pipeline of a single {@link Target}.
+ *
+ * @author Nicolò Rebaioli
+ */
+@SuppressWarnings("ResultOfMethodCallIgnored")
+public abstract class AbstractJreMojo extends AbstractMojo {
+    private static final String HTTP_CLIENT_KEY = AbstractJreMojo.class.getName() + ".httpClient";
+
+    /**
+     * The version of the JRE to download.<br>
+     * If not specified, it will use the Maven compiler source version.<br>
+     * It should be a valid Java feature release (e.g. 8, 11, 16).
+     */
+    @Parameter(defaultValue = "${maven.compiler.source}")
+    int version;
+
+    /**
+     * The JVM implementation to download.<br>
+     * Currently, only hotspot is supported.
+     */
+    @Parameter(defaultValue = "hotspot")
+    JVMImpl jvmImpl;
+
+    /**
+     * The vendor of the JRE to download.<br>
+     * Currently, only Eclipse is supported.
+     */
+    @Parameter(defaultValue = "eclipse")
+    Vendor vendor;
+
+    /**
+     * The directory where the JRE will be downloaded.<br>
+     * If not specified, it will use the project build directory.
+     * <p>
+     * The path can contain variables in the form <code>{{variable}}</code>.<br>
+     * See [the documentation]() for the list of available variables.
+     */
+    @Parameter(defaultValue = "${project.build.directory}/jre")
+    String outputdir;
+
+    /**
+     * The name of the output file.<br>
+     * If not specified, it will use the release name of the JRE.<br>
+     * If the name does not end with the extension of the archive (".zip" or ".tar.gz"), it will be appended.
+     * <p>
+     * The path can contain variables in the form <code>{{variable}}</code>.<br>
+     * See the documentation for the list of available variables.
+     */
+    @Parameter()
+    String outputfilename;
+
+    /**
+     * The directory where the JRE will be unzipped.<br>
+     * If not specified, the JRE will not be unzipped.
+     * <p>
+     * The path can contain variables in the form <code>{{variable}}</code>.<br>
+     * See the documentation for the list of available variables.
+     */
+    @Parameter()
+    String unzipto;
+
+    /**
+     * If true, the contents of the first-level folder in the JRE zip will be moved to the root.<br>
+     * If false, the contents will be extracted in the first-level folder.
+     * <p>
+     * e.g.<br>
+     * * <b>unzipto</b> = <code>{{project.build.directory}}/jre</code><br>
+     * * <b>movetoroot</b> = <code>true</code><br>
+     * * <b>JRE zip contents</b>: <code>jdk-16.0.1/bin</code>, <code>jdk-16.0.1/lib</code>, ...<br>
+     * * <b>Output</b>: <code>{{project.build.directory}}/jre/bin</code>, <code>{{project.build.directory}}/jre/lib</code>, ...<br>
+     * <p>
+     * e.g.<br>
+     * * <b>unzipto</b> = <code>{{project.build.directory}}/jre</code><br>
+     * * <b>movetoroot</b> = <code>false</code><br>
+     * * <b>JRE zip contents</b>: <code>jdk-16.0.1/bin</code>, <code>jdk-16.0.1/lib</code>, ...<br>
+     * * <b>Output</b>: <code>{{project.build.directory}}/jre/jdk-16.0.1/bin</code>, <code>{{project.build.directory}}/jre/jdk-16.0.1/lib</code>, ...
+     */
+    @Parameter(defaultValue = "true")
+    boolean movetoroot;
+
+    /**
+     * Glob patterns of the files to extract, e.g. <code>bin/**</code>, <code>lib/**</code>.<br>
+     * The patterns are matched against the paths relative to <code>unzipto</code> and support
+     * <code>*</code>, <code>?</code> and <code>**</code>. A pattern matching a directory matches everything below it.<br>
+     * If not specified, every file is extracted.
+     */
+    @Parameter(property = "jre.includes")
+    List<String> includes;
+
+    /**
+     * Glob patterns of the files not to extract, e.g. <code>legal</code>, <code>man</code>, <code>lib/src.zip</code>, <code>**&#47;*.diz</code>.<br>
+     * Excluded files are skipped before being inflated or written, instead of being deleted after the extraction.
+     */
+    @Parameter(property = "jre.excludes")
+    List<String> excludes;
+
+    /**
+     * The path of an archive into which the extracted (and filtered) JRE is packed, e.g. for launchers and installers.<br>
+     * Requires <code>unzipto</code>. If the path does not end with the extension of the compression, it is appended.
+     * <p>
+     * The path can contain variables in the form <code>{{variable}}</code>.<br>
+     * See the documentation for the list of available variables.
+     */
+    @Parameter(property = "jre.repackage")
+    String repackage;
+
+    /**
+     * The compression of the repackaged archive: <code>stored</code> (zip, fastest to extract),
+     * <code>deflate</code> (zip) or <code>xz</code> (tar.xz, smallest).
+     */
+    @Parameter(property = "jre.repackagecompression", defaultValue = "deflate")
+    Compression repackagecompression;
+
+    /**
+     * The compression level of the repackaged archive, from 1 to 9 for deflate and from 0 to 9 for xz
+     */
+    @Parameter(property = "jre.repackagelevel", defaultValue = "9")
+    int repackagelevel;
+
+    /**
+     * The modification time of the entries of the repackaged archive, as an ISO-8601 date or a number of seconds since the epoch.<br>
+     * If not specified, 1980-01-01T00:00:00Z is used, so that the archive is reproducible anyway.
+     */
+    @Parameter(defaultValue = "${project.build.outputTimestamp}")
+    String outputtimestamp;
+
+    /**
+     * The lock file which pins the release of every target.<br>
+     * When the lock file has an entry for a target, its release is bundled without asking the Adoptium API for the latest one.
+     * The lock file is written by the <code>lock</code> goal and refreshed by the <code>lock-refresh</code> goal.
+     */
+    @Parameter(property = "jre.lockfile", defaultValue = "${project.basedir}/jre.lock")
+    String lockfile;
+
+    /**
+     * If true, the downloaded archives are stored in a local cache shared across builds.<br>
+     * On a cache hit the download is skipped and the cached archive is only verified against its checksum.
+     */
+    @Parameter(property = "jre.cache", defaultValue = "true")
+    boolean cache;
+
+    /**
+     * The directory of the archive cache.<br>
+     * Archives are stored by checksum, so the same directory can be shared by every project.
+     */
+    @Parameter(property = "jre.cachedir", defaultValue = "${user.home}/.m2/jre-cache")
+    String cachedir;
+
+    /**
+     * The maximum size of the archive cache, in megabytes.<br>
+     * When the cache grows beyond this size, the least recently used archives are evicted.
+     * It must be positive, the <code>cache-prune</code> goal empties the cache with 0.
+     */
+    @Parameter(property = "jre.cachemaxsize", defaultValue = "2048")
+    long cachemaxsize;
+
+    /**
+     * How long, in seconds, a cached Adoptium API response is used without revalidation.<br>
+     * Once expired, the response is revalidated with a conditional request (<code>If-None-Match</code>/<code>If-Modified-Since</code>).
+     */
+    @Parameter(property = "jre.metadatattl", defaultValue = "3600")
+    long metadatattl;
+
+    /**
+     * If true, the JRE is resolved from the cache alone, without any network access.<br>
+     * The build fails if the release metadata or the archive is not cached.
+     */
+    @Parameter(property = "jre.offline", defaultValue = "${settings.offline}")
+    boolean offline;
+
+    /**
+     * The number of segments the archive is split into and downloaded in parallel, using HTTP <code>Range</code> requests.<br>
+     * With 1, the archive is downloaded over a single stream.
+     * If the server does not support ranges, the download falls back to a single stream.
+     */
+    @Parameter(property = "jre.downloadsegments", defaultValue = "1")
+    int downloadsegments;
+
+    /**
+     * If true and <code>unzipto</code> is set, the archive is extracted while it is downloaded.<br>
+     * The archive is never written to <code>outputdir</code>: it is only kept in the cache, if enabled.
+     * Streamed downloads are not segmented and cannot be resumed.
+     */
+    @Parameter(property = "jre.streaming", defaultValue = "false")
+    boolean streaming;
+
+    /**
+     * If true, tar.gz archives are inflated on a dedicated thread, while the entries are parsed and written.<br>
+     * A gzip stream cannot be split across threads, but its inflation can overlap with the rest of the extraction.
+     */
+    @Parameter(property = "jre.parallelinflate", defaultValue = "false")
+    boolean parallelinflate;
+
+    /**
+     * The maximum number of threads used to extract a zip archive.<br>
+     * With 0, one thread per available processor is used. Small archives are always extracted sequentially.
+     */
+    @Parameter(property = "jre.extractthreads", defaultValue = "0")
+    int extractthreads;
+
+    /**
+     * If true, each release is extracted once in <code>extractionstore</code> and <code>unzipto</code> is made of hard links to it,
+     * so that the modules of a reactor which bundle the same JRE share its files.<br>
+     * Files are copied when hard links are not supported, e.g. across devices.
+     */
+    @Parameter(property = "jre.sharedextraction", defaultValue = "false")
+    boolean sharedextraction;
+
+    /**
+     * The directory of the shared extractions, see <code>sharedextraction</code>
+     */
+    @Parameter(property = "jre.extractionstore", defaultValue = "${session.executionRootDirectory}/target/jre-store")
+    String extractionstore;
+
+    /**
+     * If true, the JRE is not downloaded nor extracted again when the extracted directory
+     * still matches the manifest written by the previous build
+     */
+    @Parameter(property = "jre.uptodatecheck", defaultValue = "true")
+    boolean uptodatecheck;
+
+    /**
+     * If true, the up-to-date check also compares the SHA-256 of every extracted file,
+     * instead of their size and modification time only
+     */
+    @Parameter(property = "jre.verifyhashes", defaultValue = "false")
+    boolean verifyhashes;
+
+    /**
+     * If true, the timings and throughput of every phase are written to <code>metricsfile</code>
+     */
+    @Parameter(property = "jre.metrics", defaultValue = "true")
+    boolean metrics;
+
+    /**
+     * The JSON file where the metrics are written.<br>
+     * By default, every goal and execution has its own file, so that the executions of a module do not overwrite each other.
+     */
+    @Parameter(property = "jre.metricsfile", defaultValue = "${project.build.directory}/jre-bundler-metrics/${mojo.goal}-${mojo.executionId}.json")
+    String metricsfile;
+
+    /**
+     * The base URLs of mirrors of the Adoptium API, e.g. a remote repository of <code>https://api.adoptium.net</code>.<br>
+     * The fastest healthy mirror is used and the others are tried when it fails. If not specified, the Adoptium API is used.
+     */
+    @Parameter(property = "jre.apimirrors")
+    List<String> apimirrors;
+
+    /**
+     * The base URLs of mirrors of the binaries, to which the path of the download links is appended.<br>
+     * The fastest healthy mirror is used, the others and then the original link are tried when it fails.
+     */
+    @Parameter(property = "jre.binarymirrors")
+    List<String> binarymirrors;
+
+    /**
+     * How long, in milliseconds, a mirror can take to answer the probe which selects the fastest one
+     */
+    @Parameter(property = "jre.probetimeout", defaultValue = "2000")
+    int probetimeout;
+
+    /**
+     * How long, in milliseconds, a connection to a server can take to be established
+     */
+    @Parameter(property = "jre.connecttimeout", defaultValue = "10000")
+    int connecttimeout;
+
+    /**
+     * How long, in milliseconds, a request can wait for the response headers
+     */
+    @Parameter(property = "jre.readtimeout", defaultValue = "30000")
+    int readtimeout;
+
+    /**
+     * How long, in milliseconds, a response body can go without receiving data before the transfer is aborted.<br>
+     * Set it to 0 to never abort a stalled transfer.
+     */
+    @Parameter(property = "jre.idletimeout", defaultValue = "30000")
+    int idletimeout;
+
+    /**
+     * The maximum number of retries of a request which fails with a network error, a timeout or a server error.<br>
+     * Checksum mismatches and client errors are never retried.
+     */
+    @Parameter(property = "jre.retries", defaultValue = "3")
+    int retries;
+
+    /**
+     * The delay, in milliseconds, before the first retry of a failed request, doubled at every retry
+     */
+    @Parameter(property = "jre.retrydelay", defaultValue = "500")
+    int retrydelay;
+
+    /**
+     * How long, in milliseconds, an API request can wait before a second one is sent over a new connection,
+     * the first response being used.<br>
+     * Set it to about the 95th percentile of the API latency to cut the tail latency. Set it to 0 to disable hedging.
+     */
+    @Parameter(property = "jre.hedgedelay", defaultValue = "0")
+    int hedgedelay;
+
+    /**
+     * The current Maven session, which holds the HTTP client shared by all the executions
+     */
+    @Parameter(defaultValue = "${session}", readonly = true)
+    MavenSession session;
+
+    private JreLock lock;
+
+    /**
+     * Check the validity of the parameters.<br>
+     * If the parameters are not valid, it throws a MojoExecutionException.
+     *
+     * @throws MojoExecutionException If the parameters are not valid
+     */
+    protected void checkParameters() throws MojoExecutionException {
+        if (unzipto != null && !unzipto.isEmpty() && !Utils.isValidPath(unzipto)) {
+            throw new MojoExecutionException("Invalid unzip path: " + unzipto);
+        }
+        if (outputdir != null && !outputdir.isEmpty() && !Utils.isValidPath(outputdir)) {
+            throw new MojoExecutionException("Invalid output directory: " + outputdir);
+        }
+        if (outputfilename != null && !outputfilename.isEmpty() && outputfilename.endsWith("/")) {
+            throw new MojoExecutionException("Output filename cannot be a directory");
+        }
+        checkTemplate("unzipto", unzipto);
+        checkTemplate("outputdir", outputdir);
+        checkTemplate("outputfilename", outputfilename);
+        checkTemplate("repackage", repackage);
+        if (repackage != null && !repackage.isEmpty()) {
+            if (unzipto == null || unzipto.isEmpty()) {
+                throw new MojoExecutionException("Repackaging requires unzipto");
+            }
+            int minLevel = repackagecompression == Compression.xz ? 0 : 1;
+            if (repackagelevel < minLevel || repackagelevel > 9) {
+                throw new MojoExecutionException("The repackage level must be between " + minLevel + " and 9");
+            }
+            try {
+                outputTimestamp();
+            } catch (DateTimeParseException e) {
+                throw new MojoExecutionException("Invalid output timestamp: " + outputtimestamp);
+            }
+        }
+        if (cache && cachemaxsize <= 0) {
+            throw new MojoExecutionException("The cache maximum size must be positive, use the cache-prune goal to empty the cache");
+        }
+        if (offline && !cache) {
+            throw new MojoExecutionException("Offline mode requires the cache to be enabled");
+        }
+        if (downloadsegments < 1) {
+            throw new MojoExecutionException("The number of download segments must be at least 1");
+        }
+        if (probetimeout <= 0) {
+            throw new MojoExecutionException("The probe timeout must be positive");
+        }
+        if (connecttimeout <= 0 || readtimeout <= 0) {
+            throw new MojoExecutionException("The connect and read timeouts must be positive");
+        }
+        if (idletimeout < 0 || retries < 0 || retrydelay < 0 || hedgedelay < 0) {
+            throw new MojoExecutionException("The idle timeout, retries, retry delay and hedge delay cannot be negative");
+        }
+        checkMirrors("apimirrors", apimirrors);
+        checkMirrors("binarymirrors", binarymirrors);
+        if (lockfile != null && !lockfile.isEmpty() && !Utils.isValidPath(lockfile)) {
+            throw new MojoExecutionException("Invalid lock file: " + lockfile);
+        }
+        if (sharedextraction && (extractionstore == null || extractionstore.isEmpty() || !Utils.isValidPath(extractionstore))) {
+            throw new MojoExecutionException("Invalid extraction store: " + extractionstore);
+        }
+    }
+
+    private static void checkMirrors(String parameter, List<String> mirrors) throws MojoExecutionException {
+        if (mirrors == null) {
+            return;
+        }
+        for (String mirror : mirrors) {
+            try {
+                URI uri = new URI(mirror);
+                if (uri.getScheme() == null || uri.getHost() == null) {
+                    throw new MojoExecutionException("Invalid " + parameter + " URL: " + mirror);
+                }
+            } catch (URISyntaxException e) {
+                throw new MojoExecutionException("Invalid " + parameter + " URL: " + mirror);
+            }
+        }
+    }
+
+    /**
+     * Create the Adoptium API client.
+     *
+     * @return The API client, backed by the metadata cache if the cache is enabled
+     */
+    protected AdoptiumApi createApi() {
+        MetadataCache metadataCache = cache
+                ? new MetadataCache(Path.of(cachedir, "metadata"), metadataTtl())
+                : null;
+        List<String> urls = apimirrors != null && !apimirrors.isEmpty() ? apimirrors : List.of(AdoptiumApi.BASE_URL);
+        Mirrors mirrors = new Mirrors(httpClient(), urls, false, Duration.ofMillis(probetimeout), getLog());
+        return new AdoptiumApi(httpClient(), metadataCache, offline, mirrors, requestPolicy(getLog()));
+    }
+
+    /**
+     * Get how long a cached API response is used without revalidation.
+     *
+     * @return The time to live of the cached API responses
+     */
+    protected Duration metadataTtl() {
+        return Duration.ofSeconds(metadatattl);
+    }
+
+    /**
+     * Get the lock file, read once per execution.
+     *
+     * @return The lock, empty if the lock file does not exist or is not configured
+     * @throws IOException If the lock file cannot be read
+     */
+    protected synchronized JreLock lock() throws IOException {
+        if (lock == null) {
+            lock = lockfile != null && !lockfile.isEmpty() ? JreLock.read(Path.of(lockfile)) : new JreLock();
+        }
+        return lock;
+    }
+
+    /**
+     * Get the key of a target in the lock file.
+     *
+     * @param target The target
+     * @return The key of the target
+     */
+    protected String lockKey(Target target) {
+        return JreLock.key(version, jvmImpl, vendor, target.os, target.architecture, target.imagetype);
+    }
+
+    /**
+     * Resolve the latest release of a target through the Adoptium API.
+     *
+     * @param target The target to resolve
+     * @param api The Adoptium API client
+     * @param log The log to use
+     * @return The latest release
+     * @throws Exception If the release cannot be resolved
+     * @see #batchResolution()
+     */
+    protected Release resolve(Target target, AdoptiumApi api, Log log) throws Exception {
+        Release[] versions = batchResolution()
+                ? api.getLatestVersions(version, jvmImpl, vendor).find(target.os, target.architecture, target.imagetype, jvmImpl)
+                : api.getLatestVersion(version, jvmImpl, target.architecture, target.imagetype, target.os, vendor);
+        if (versions.length == 0) {
+            throw new MojoExecutionException("No versions found for " + target);
+        }
+        log.info("Found " + versions.length + " versions");
+        return versions[0];
+    }
+
+    /**
+     * Whether the releases are pinned in the lock file.
+     *
+     * @return True if the lock file exists
+     */
+    protected boolean usesLock() {
+        return lockfile != null && !lockfile.isEmpty() && Files.isRegularFile(Path.of(lockfile));
+    }
+
+    /**
+     * Whether the targets are resolved from the latest releases of every platform, fetched with a single request,
+     * instead of a filtered request per target.<br>
+     * The unfiltered response is larger, so it only pays off when several targets are resolved.
+     *
+     * @return False, a single target is resolved with a filtered request
+     */
+    protected boolean batchResolution() {
+        return false;
+    }
+
+    /**
+     * Check the directory a target is unzipped to, once its template is rendered.<br>
+     * Nothing to check when a single target is bundled.
+     *
+     * @param target The target
+     * @param unzipPath The rendered directory
+     * @throws MojoExecutionException If the directory cannot be used by the target
+     */
+    protected void checkUnzipPath(Target target, Path unzipPath) throws MojoExecutionException {
+    }
+
+    /**
+     * Create the timeouts and retries of the HTTP requests.
+     *
+     * @param log The log to use
+     * @return The request policy
+     */
+    protected RequestPolicy requestPolicy(Log log) {
+        return new RequestPolicy(Duration.ofMillis(readtimeout), Duration.ofMillis(idletimeout), retries,
+                Duration.ofMillis(retrydelay), Duration.ofMillis(hedgedelay), log);
+    }
+
+    /**
+     * Get the HTTP client of the Maven session.<br>
+     * The client is created by the first execution and shared by all the executions of the session
+     * (every module of the reactor, every target), so that connections are reused instead of handshaking again.
+     * Executions configured with a different connect timeout get their own client.
+     *
+     * @return The HTTP client
+     */
+    protected HttpClient httpClient() {
+        Duration connectTimeout = Duration.ofMillis(connecttimeout > 0 ? connecttimeout : 10_000);
+        if (session == null || session.getRepositorySession() == null) {
+            return Utils.newHttpClient(connectTimeout);
+        }
+        return (HttpClient) session.getRepositorySession().getData()
+                .computeIfAbsent(HTTP_CLIENT_KEY + "." + connectTimeout.toMillis(), () -> Utils.newHttpClient(connectTimeout));
+    }
+
+    /**
+     * Create the archive cache.
+     *
+     * @return The archive cache, or null if the cache is disabled
+     */
+    protected JreCache createCache() {
+        return cache ? new JreCache(Path.of(cachedir), cachemaxsize * 1024 * 1024) : null;
+    }
+
+    /**
+     * Evict the least recently used archives until the cache fits its maximum size.
+     *
+     * @param jreCache The archive cache, may be null
+     * @throws IOException If an I/O error occurs
+     */
+    protected void pruneCache(JreCache jreCache) throws IOException {
+        if (jreCache != null) {
+            long freed = jreCache.prune();
+            if (freed > 0) {
+                getLog().info("Evicted " + Utils.bytesToHuman(freed) + " from the JRE cache");
+            }
+        }
+    }
+
+    /**
+     * Get the default name of the downloaded archive, used when <code>outputfilename</code> is not set.
+     *
+     * @param release The release to bundle
+     * @return The default name of the archive
+     */
+    protected String defaultOutputFilename(Release release) {
+        return release.release_name;
+    }
+
+    /**
+     * Resolve, download and (optionally) unzip the JRE of a target.
+     *
+     * @param target The target to bundle
+     * @param api The Adoptium API client
+     * @param jreCache The archive cache, may be null
+     * @param log The log to use
+     * @param report The metrics report, where the metrics of the target are added
+     * @return The bundled release
+     * @throws Exception If the JRE cannot be bundled
+     */
+    protected Release bundle(Target target, AdoptiumApi api, JreCache jreCache, Log log, MetricsReport report) throws Exception {
+        BundleMetrics metrics = report.add(target.toString());
+        long start = System.nanoTime();
+        try {
+            Release release = bundleTarget(target, api, jreCache, log, metrics);
+            if (repackages()) {
+                repackage(target, release, log, metrics);
+            }
+            return release;
+        } catch (Exception e) {
+            metrics.result = BundleMetrics.FAILED;
+            metrics.error = e.getMessage();
+            throw e;
+        } finally {
+            metrics.total_ms = millisSince(start);
+        }
+    }
+
+    private Release bundleTarget(Target target, AdoptiumApi api, JreCache jreCache, Log log, BundleMetrics metrics) throws Exception {
+        // Get the JRE from Adoptium
+        long resolveStart = System.nanoTime();
+        // A release pinned in the lock file is bundled as is, without any API round trip
+        Release locked = lock().get(lockKey(target));
+        if (locked != null) {
+            log.info("Using " + locked.release_name + " pinned in " + lockfile);
+            metrics.locked = true;
+        }
+        Release chosenVersion = locked != null ? locked : resolve(target, api, log);
+        metrics.resolve_ms = millisSince(resolveStart);
+        metrics.release_name = chosenVersion.release_name;
+
+        // Generate the output path
+        String fileName = target.getOutputfilename(outputfilename);
+        if (fileName == null || fileName.isEmpty()) {
+            fileName = defaultOutputFilename(chosenVersion);
+        }
+        String extension = archiveExtension(chosenVersion.binary.pkg.name);
+        if (!fileName.endsWith(extension)) {
+            fileName += extension;
+        }
+        String directory = generatePath(target.getOutputdir(outputdir), chosenVersion);
+        fileName = generatePath(fileName, chosenVersion);
+
+        Package pkg = chosenVersion.binary.pkg;
+        File destination = Path.of(directory, fileName).toFile();
+        String unzipDirectory = target.getUnzipto(unzipto);
+        boolean unzip = unzipDirectory != null && !unzipDirectory.isEmpty();
+        Path unzipPath = unzip ? Path.of(generatePath(unzipDirectory, chosenVersion)) : null;
+        if (unzip) {
+            checkUnzipPath(target, unzipPath);
+        }
+
+        // Skip the whole download and extraction if the JRE is already extracted and unchanged
+        Path manifestPath = unzip && uptodatecheck ? ExtractionManifest.pathFor(unzipPath) : null;
+        if (manifestPath != null) {
+            ExtractionManifest previous = ExtractionManifest.read(manifestPath);
+            if (previous != null && previous.matches(pkg.checksum, extractionOptions()) && previous.verify(unzipPath, verifyhashes)) {
+                log.info(chosenVersion.release_name + " is up to date in " + unzipPath);
+                metrics.result = BundleMetrics.UP_TO_DATE;
+                return chosenVersion;
+            }
+            // Remove the stale extraction, so that files of the previous release do not linger
+            if (previous != null) {
+                log.info("Removing the outdated " + previous.release_name + " from " + unzipPath);
+                previous.clean(unzipPath);
+            }
+            Files.deleteIfExists(manifestPath);
+        }
+
+        // With a shared store, each release is extracted once and linked into the extraction directories
+        ExtractionStore store = unzip && sharedextraction && JreCache.isCacheable(pkg.checksum) ? new ExtractionStore(Path.of(extractionstore)) : null;
+        Path storeEntry = store != null ? store.entry(pkg.checksum, extractionOptions()) : null;
+        if (store != null && store.contains(storeEntry)) {
+            metrics.result = BundleMetrics.LINKED;
+            link(store, storeEntry, unzipPath, log, metrics);
+            if (manifestPath != null) {
+                ExtractionManifest.create(unzipPath, chosenVersion.release_name, pkg.checksum, extractionOptions(), verifyhashes).write(manifestPath);
+            }
+            return chosenVersion;
+        }
+        Path extractPath = store != null ? store.newStaging() : unzipPath;
+
+        // Look for the JRE in the cache
+        if (!JreCache.isCacheable(pkg.checksum)) {
+            jreCache = null;
+        }
+        File archive = null;
+        if (jreCache != null) {
+            // The cached archive is verified against its checksum
+            long checksumStart = System.nanoTime();
+            Path cached = jreCache.get(pkg.checksum, pkg.name);
+            if (cached != null) {
+                log.info("Using cached " + chosenVersion.release_name + " from " + cached);
+                archive = cached.toFile();
+                metrics.checksum_ms = millisSince(checksumStart);
+                metrics.result = BundleMetrics.CACHED;
+            }
+        }
+
+        ArchiveExtractor extractor = createExtractor(pkg.name);
+        boolean extracted = false;
+        InFlightDownloads.Lease lease = null;
+
+        // Download the JRE (straight into the cache, if enabled)
+        if (archive == null) {
+            if (offline) {
+                throw new MojoExecutionException("Offline mode: " + chosenVersion.release_name + " is not cached");
+            }
+            if (pkg.checksum == null || pkg.checksum.isEmpty()) {
+                log.warn("No checksum published for " + pkg.name + ", the download will not be verified");
+            }
+            Path download = jreCache != null ? jreCache.downloadPath(pkg.checksum, pkg.name) : destination.toPath();
+            Path streamCopy = jreCache != null ? download : null;
+            boolean stream = streaming && unzip;
+            RequestPolicy policy = requestPolicy(log);
+            Downloader downloader = new Downloader(httpClient(), downloadsegments, policy, log);
+
+            Mirrors mirrors = binaryMirrors(log);
+            URI link = new URI(pkg.link);
+            InFlightDownloads.Download transfer = () -> {
+                if (stream) {
+                    // In streaming mode, the archive is extracted while it is downloaded and only written to the cache
+                    long streamStart = System.nanoTime();
+                    // The stream is only verified once extracted, so without a store it is extracted aside and moved into place afterwards
+                    Path streamPath = store != null ? extractPath : stagingFor(unzipPath);
+                    try {
+                        policy.retry("Download of " + chosenVersion.release_name, () -> mirrors.fetch(link, uri -> {
+                            log.info("Streaming " + chosenVersion.release_name + " from " + uri + " to " + unzipPath);
+                            try {
+                                downloader.stream(uri, pkg.size, pkg.checksum, streamCopy, in -> extractor.extract(in, streamPath));
+                            } catch (IOException e) {
+                                if (extractor.getFilesWritten() > 0) {
+                                    // A partially extracted stream cannot be resumed from another mirror, nor retried
+                                    throw new UncheckedIOException(e);
+                                }
+                                throw e;
+                            }
+                            return null;
+                        }));
+                    } catch (Exception e) {
+                        if (store != null) {
+                            store.discard(extractPath);
+                        } else {
+                            Utils.deleteRecursively(streamPath);
+                        }
+                        throw e instanceof UncheckedIOException unchecked ? unchecked.getCause() : e;
+                    }
+                    if (store == null) {
+                        Utils.moveContents(streamPath, unzipPath);
+                    }
+                    log.info("Unzipped " + chosenVersion.release_name);
+                    // Download and extraction overlap, both take the whole stream duration
+                    metrics.extract_ms = millisSince(streamStart);
+                    metrics.result = BundleMetrics.STREAMED;
+                    metrics.downloaded(metrics.extract_ms, downloader.getReceivedBytes());
+                } else {
+                    // Interrupted downloads are kept as .part files and resumed by the next attempt, from any mirror
+                    long downloadStart = System.nanoTime();
+                    policy.retry("Download of " + chosenVersion.release_name, () -> mirrors.fetch(link, uri -> {
+                        log.info("Downloading " + chosenVersion.release_name + " from " + uri);
+                        downloader.download(uri, download, pkg.size, pkg.checksum);
+                        return null;
+                    }));
+                    metrics.result = BundleMetrics.DOWNLOADED;
+                    metrics.downloaded(millisSince(downloadStart), downloader.getReceivedBytes());
+                }
+                metrics.time_to_first_byte_ms = downloader.getTimeToFirstByte();
+                metrics.checksum_ms = downloader.getChecksumTime();
+            };
+
+            if (stream && jreCache == null) {
+                // Nothing is written to disk, so there is no download to share
+                transfer.run();
+                extracted = true;
+            } else {
+                lease = InFlightDownloads.download(download, jreCache != null ? jreCache.lockPath(pkg.checksum, pkg.name) : null, pkg.checksum, log, transfer);
+                if (lease.isDownloaded()) {
+                    extracted = stream;
+                    archive = stream ? null : download.toFile();
+                } else {
+                    // Another module or process downloaded the same archive in the meantime
+                    log.info("Using " + chosenVersion.release_name + " downloaded concurrently to " + download);
+                    archive = download.toFile();
+                    metrics.result = BundleMetrics.SHARED;
+                }
+            }
+        }
+
+        // If the unzip configuration is set, unzip the JRE, otherwise copy the cached archive to the output
+        boolean delete = false;
+        try {
+            if (unzip) {
+                if (!extracted) {
+                    log.info("Unzipping " + archive);
+                    long extractStart = System.nanoTime();
+                    try {
+                        extractor.extract(archive.toPath(), extractPath);
+                    } catch (Exception e) {
+                        if (store != null) {
+                            store.discard(extractPath);
+                        }
+                        throw e;
+                    }
+                    metrics.extract_ms = millisSince(extractStart);
+                    log.info("Unzipped " + archive);
+                    // The downloaded archive is only deleted once every module sharing it is done with it
+                    delete = archive.equals(destination);
+                }
+                metrics.extracted_files = extractor.getFilesWritten();
+                metrics.extracted_bytes = extractor.getBytesWritten();
+                metrics.filtered_files = extractor.getFilesFiltered();
+                if (extractor.getFilesFiltered() > 0) {
+                    log.info("Skipped " + extractor.getFilesFiltered() + " files filtered out by the includes and excludes");
+                }
+                if (store != null) {
+                    store.commit(extractPath, storeEntry);
+                    link(store, storeEntry, unzipPath, log, metrics);
+                }
+                if (manifestPath != null) {
+                    ExtractionManifest.create(unzipPath, chosenVersion.release_name, pkg.checksum, extractionOptions(), verifyhashes).write(manifestPath);
+                }
+            } else if (!archive.equals(destination)) {
+                Files.createDirectories(destination.toPath().getParent());
+                Files.copy(archive.toPath(), destination.toPath(), StandardCopyOption.REPLACE_EXISTING);
+                log.info("Copied " + archive + " to " + destination);
+            }
+        } finally {
+            if (lease != null) {
+                lease.release(delete);
+            }
+        }
+        return chosenVersion;
+    }
+
+    /**
+     * Create an empty staging directory next to the directory a JRE is unzipped to, on the same file store.
+     */
+    private static Path stagingFor(Path unzipPath) throws IOException {
+        Path parent = unzipPath.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        return Files.createTempDirectory(parent, "." + unzipPath.getFileName() + "-");
+    }
+
+    private Mirrors binaryMirrors(Log log) {
+        List<String> urls = binarymirrors != null ? binarymirrors : List.of();
+        return new Mirrors(httpClient(), urls, true, Duration.ofMillis(probetimeout), log);
+    }
+
+    private static void link(ExtractionStore store, Path entry, Path unzipPath, Log log, BundleMetrics metrics) throws IOException {
+        long linkStart = System.nanoTime();
+        ExtractionStore.Links links = store.link(entry, unzipPath);
+        metrics.link_ms = millisSince(linkStart);
+        metrics.linked_files = links.linked();
+        metrics.copied_files = links.copied();
+        if (links.copied() > 0) {
+            log.info("Copied " + links.copied() + " files from " + entry + " to " + unzipPath + " (hard links are not supported)");
+        } else {
+            log.info("Linked " + links.linked() + " files from " + entry + " to " + unzipPath);
+        }
+    }
+
+    /**
+     * Get the extraction options recorded in the manifest.<br>
+     * An extraction made with different options is never considered up to date.
+     *
+     * @return The extraction options which affect the extracted tree
+     */
+    protected String extractionOptions() {
+        String options = "movetoroot=" + movetoroot;
+        if (!entryFilter().isEmpty()) {
+            options += ";includes=" + (includes != null ? includes : List.of()) + ";excludes=" + (excludes != null ? excludes : List.of());
+        }
+        if (repackages()) {
+            // The repackaged archive is only rebuilt with the extraction
+            options += ";repackage=" + repackage + ";" + repackagecompression + "-" + repackagelevel + ";timestamp=" + outputTimestamp().toMillis();
+        }
+        return options;
+    }
+
+    /**
+     * Get the modification time of the entries of the repackaged archives.
+     *
+     * @return The configured output timestamp, or 1980-01-01T00:00:00Z if not set
+     * @throws DateTimeParseException If the timestamp is neither a date nor a number of seconds
+     */
+    protected FileTime outputTimestamp() {
+        if (outputtimestamp == null || outputtimestamp.isEmpty()) {
+            return FileTime.from(Instant.parse("1980-01-01T00:00:00Z"));
+        }
+        if (outputtimestamp.chars().allMatch(Character::isDigit)) {
+            return FileTime.from(Long.parseLong(outputtimestamp), TimeUnit.SECONDS);
+        }
+        return FileTime.from(OffsetDateTime.parse(outputtimestamp).toInstant());
+    }
+
+    /**
+     * Pack the extracted JRE of a target into the repackaged archive.<br>
+     * An archive newer than an up-to-date extraction is kept, since it was packed from the same files.
+     */
+    private void repackage(Target target, Release release, Log log, BundleMetrics metrics) throws IOException {
+        Path directory = Path.of(generatePath(target.getUnzipto(unzipto), release));
+        Path manifestPath = ExtractionManifest.pathFor(directory);
+        repackage(directory, release, BundleMetrics.UP_TO_DATE.equals(metrics.result) ? manifestPath : null, log, metrics);
+    }
+
+    /**
+     * Pack a directory into the repackaged archive.
+     *
+     * @param directory The directory to pack
+     * @param release The release, which provides the variables of the archive path
+     * @param reference A file the archive is up to date with if it is newer, null to always repackage
+     * @param log The log to use
+     * @param metrics The metrics of the target
+     * @throws IOException If an I/O error occurs
+     */
+    protected void repackage(Path directory, Release release, Path reference, Log log, BundleMetrics metrics) throws IOException {
+        String fileName = generatePath(repackage, release);
+        if (!fileName.endsWith(repackagecompression.getExtension())) {
+            fileName += repackagecompression.getExtension();
+        }
+        Path archive = Path.of(fileName);
+        if (reference != null && Files.isRegularFile(archive) && Files.isRegularFile(reference)
+                && Files.getLastModifiedTime(archive).compareTo(Files.getLastModifiedTime(reference)) >= 0) {
+            log.info(archive + " is up to date");
+            return;
+        }
+
+        log.info("Repackaging " + directory + " to " + archive);
+        long repackageStart = System.nanoTime();
+        Repackager repackager = new Repackager(repackagecompression, repackagelevel, Runtime.getRuntime().availableProcessors(), outputTimestamp());
+        int entries = repackager.repackage(directory, archive);
+        metrics.repackage_ms = millisSince(repackageStart);
+        metrics.repackaged_bytes = Files.size(archive);
+        log.info("Repackaged " + entries + " entries to " + archive + " (" + Utils.bytesToHuman(metrics.repackaged_bytes) + ")");
+    }
+
+    /**
+     * Check if the extracted JRE is packed into a new archive.
+     *
+     * @return True if <code>repackage</code> is set
+     */
+    protected boolean repackages() {
+        return repackage != null && !repackage.isEmpty();
+    }
+
+    /**
+     * Create the filter of the extracted files.
+     *
+     * @return The filter built from the includes and the excludes
+     */
+    protected EntryFilter entryFilter() {
+        return EntryFilter.of(includes, excludes);
+    }
+
+    /**
+     * Create the metrics report of the execution.
+     *
+     * @param goal The goal being executed
+     * @return The metrics report
+     */
+    protected MetricsReport createMetricsReport(String goal) {
+        MavenProject project = session != null ? session.getCurrentProject() : null;
+        return new MetricsReport(goal, project != null ? project.getGroupId() + ":" + project.getArtifactId() : null);
+    }
+
+    /**
+     * Write the metrics report, if enabled.<br>
+     * A report which cannot be written does not fail the build.
+     *
+     * @param report The metrics report
+     */
+    protected void writeMetricsReport(MetricsReport report) {
+        if (!metrics || metricsfile == null || metricsfile.isEmpty()) {
+            return;
+        }
+        try {
+            report.write(Path.of(metricsfile));
+            getLog().debug("Metrics written to " + metricsfile);
+        } catch (IOException e) {
+            getLog().warn("Cannot write the metrics to " + metricsfile + ": " + e.getMessage());
+        }
+    }
+
+    protected static long millisSince(long start) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
+
+    /**
+     * Get the extension of an archive published by Adoptium.
+     *
+     * @param name The name of the archive
+     * @return <code>.tar.gz</code> for tarballs (linux, mac, alpine-linux, aix...), <code>.zip</code> otherwise
+     */
+    protected static String archiveExtension(String name) {
+        return name != null && name.endsWith(".tar.gz") ? ".tar.gz" : ".zip";
+    }
+
+    /**
+     * Create the extractor for an archive.
+     *
+     * @param name The name of the archive
+     * @return The extractor matching the archive format
+     */
+    protected ArchiveExtractor createExtractor(String name) {
+        return archiveExtension(name).equals(".tar.gz")
+                ? new TarGzExtractor(movetoroot, parallelinflate, entryFilter())
+                : new ZipExtractor(movetoroot, extractthreads, entryFilter());
+    }
+
+    /**
+     * Generate a path by replacing the variables with the values in the version.
+     *
+     * @param path The path with variables
+     * @param version The version to use for the replacement
+     * @return The path with the variables replaced
+     */
+    protected String generatePath(String path, Release version) {
+        return PathTemplate.compile(path).render(version);
+    }
+
+    /**
+     * Check that a path template only uses variables which are fields of a release.<br>
+     * When releases are pinned in a lock file, the template can only use the fields pinned in the lock file.
+     *
+     * @param parameter The name of the parameter
+     * @param template The path template, may be null
+     * @throws MojoExecutionException If the template uses an unknown variable
+     */
+    protected void checkTemplate(String parameter, String template) throws MojoExecutionException {
+        if (template == null || template.isEmpty()) {
+            return;
+        }
+        PathTemplate compiled = PathTemplate.compile(template);
+        List<String> unknown = compiled.getUnknownVariables();
+        if (!unknown.isEmpty()) {
+            throw new MojoExecutionException("Unknown variable {{" + unknown.getFirst() + "}} in " + parameter + ": " + template
+                    + "\nAvailable variables: " + String.join(", ", PathTemplate.getVariables()));
+        }
+        if (usesLock()) {
+            for (String variable : compiled.getReferencedVariables()) {
+                if (JreLock.UNPINNED_VARIABLES.contains(variable)) {
+                    throw new MojoExecutionException("Variable {{" + variable + "}} in " + parameter + " is not pinned in the lock file: " + template);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,275 @@
+/*
+ * Maven JRE Plugin
+ * Copyright (c) 2025 Nicolò Rebaioli
+ *
+ * This file is part of Maven JRE Plugin.
+ *
+ * Maven JRE Plugin is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Maven JRE Plugin is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Maven JRE Plugin.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.github.samurai016.plugins;
+
+import io.github.samurai016.plugins.adoptium.AdoptiumApi;
+import io.github.samurai016.plugins.adoptium.models.OperatingSystem;
+import io.github.samurai016.plugins.adoptium.models.Release;
+import io.github.samurai016.plugins.cache.JreCache;
+import io.github.samurai016.plugins.extract.ExtractionManifest;
+import io.github.samurai016.plugins.metrics.MetricsReport;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugins.annotations.LifecyclePhase;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.project.MavenProject;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bundles a JRE and generates an AppCDS archive for it.<br>
+ * The bundled <code>bin/java</code> runs a training command, the classes it loads are archived next to the JRE,
+ * and the JVM options which enable the archive are written for the launcher.
+ * The archive can only be generated when the JRE runs on the build machine.
+ *
+ * @author Nicolò Rebaioli
+ */
+@Mojo(name = "appcds", defaultPhase = LifecyclePhase.PACKAGE)
+public class AppCdsMojo extends JreBundlerMojo {
+    /**
+     * The arguments of the training run, passed to the bundled <code>bin/java</code>,
+     * e.g. <code>-cp</code>, <code>target/app.jar</code>, <code>com.example.Main</code>.<br>
+     * The training should load the classes of a typical startup and exit.
+     */
+    @Parameter(required = true)
+    List<String> cdstraining;
+
+    /**
+     * The CDS archive, relative to the home of the bundled JRE.
+     */
+    @Parameter(property = "jre.cdsarchive", defaultValue = "app.jsa")
+    String cdsarchive;
+
+    /**
+     * The path of the archive written in the JVM options, as seen by the launcher
+     * (e.g. <code>%EXEDIR%/jre/app.jsa</code> for launch4j).<br>
+     * If not specified, the absolute path of the archive is used.
+     */
+    @Parameter(property = "jre.cdsarchivepath")
+    String cdsarchivepath;
+
+    /**
+     * The file where the JVM options which enable the archive are written, one per line.<br>
+     * The format is the one of launch4j <code>.l4j.ini</code> files and of <code>java @argfiles</code>.
+     */
+    @Parameter(property = "jre.cdsoptionsfile", defaultValue = "${project.build.directory}/jre-appcds.options")
+    String cdsoptionsfile;
+
+    /**
+     * The maximum duration of the training run, in seconds.
+     */
+    @Parameter(property = "jre.cdstimeout", defaultValue = "300")
+    int cdstimeout;
+
+    @Parameter(defaultValue = "${project}", readonly = true)
+    MavenProject project;
+
+    @Override
+    public void execute() throws MojoExecutionException {
+        MetricsReport report = createMetricsReport("appcds");
+        try {
+            getLog().info("JRE Bundler Plugin");
+
+            getLog().info("Version: " + version);
+            getLog().info("JVM Implementation: " + jvmImpl);
+            getLog().info("Architecture: " + architecture);
+            getLog().info("OS: " + os);
+            getLog().info("Image Type: " + imagetype);
+            getLog().info("Vendor: " + vendor);
+            getLog().info("Unzip to: " + unzipto);
+            getLog().info("CDS archive: " + cdsarchive);
+
+            checkParameters();
+
+            // Bundle the JRE (a no-op when it is up-to-date)
+            AdoptiumApi api = createApi();
+            JreCache jreCache = createCache();
+            Target target = new Target(os, architecture, imagetype);
+            Release release = bundle(target, api, jreCache, getLog(), report);
+            pruneCache(jreCache);
+
+            if (!target.isHost()) {
+                getLog().warn("Skipping the CDS archive: " + target + " does not run on this machine");
+                return;
+            }
+            if (version < 10) {
+                getLog().warn("Skipping the CDS archive: application class data sharing requires Java 10 or later");
+                return;
+            }
+
+            Path jre = Path.of(generatePath(unzipto, release));
+            Path home = Utils.findJavaHome(jre).orElseThrow(() -> new MojoExecutionException("No Java image found in " + jre));
+            Path archive = home.resolve(cdsarchive).toAbsolutePath().normalize();
+            if (isUpToDate(archive, jre)) {
+                getLog().info("CDS archive " + archive + " is up to date");
+            } else {
+                dumpArchive(home, archive);
+            }
+
+            List<String> options = new ArrayList<>();
+            if (version == 10) {
+                options.add("-XX:+UseAppCDS");
+            }
+            options.add("-XX:SharedArchiveFile=" + (cdsarchivepath != null && !cdsarchivepath.isEmpty() ? cdsarchivepath : archive.toString()));
+            options.add("-Xshare:auto");
+            Path optionsFile = Path.of(cdsoptionsfile);
+            if (optionsFile.getParent() != null) {
+                Files.createDirectories(optionsFile.getParent());
+            }
+            Files.write(optionsFile, options);
+            project.getProperties().setProperty("jre.appcds.options", String.join(" ", options));
+            getLog().info("JVM options written to " + optionsFile + ": " + String.join(" ", options));
+        } catch (MojoExecutionException e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new MojoExecutionException(e);
+        } finally {
+            writeMetricsReport(report);
+        }
+    }
+
+    @Override
+    protected void checkParameters() throws MojoExecutionException {
+        super.checkParameters();
+        if (unzipto == null || unzipto.isEmpty()) {
+            throw new MojoExecutionException("The appcds goal requires unzipto, the directory of the JRE");
+        }
+        if (cdstraining == null || cdstraining.isEmpty()) {
+            throw new MojoExecutionException("The appcds goal requires cdstraining, the arguments of the training run");
+        }
+        if (cdsarchive == null || cdsarchive.isEmpty() || !Utils.isValidPath(cdsarchive)) {
+            throw new MojoExecutionException("Invalid CDS archive: " + cdsarchive);
+        }
+        if (cdstimeout <= 0) {
+            throw new MojoExecutionException("Invalid CDS timeout: " + cdstimeout);
+        }
+    }
+
+    /**
+     * Check if the archive is newer than the JRE and than the application it was trained with.<br>
+     * The application is the project artifact and the files named by the training arguments (e.g. the jars of <code>-cp</code>).
+     */
+    private boolean isUpToDate(Path archive, Path jre) throws IOException {
+        Path manifest = ExtractionManifest.pathFor(jre);
+        if (!Files.isRegularFile(archive) || !Files.isRegularFile(manifest)) {
+            return false;
+        }
+        List<Path> inputs = new ArrayList<>();
+        inputs.add(manifest);
+        if (project.getArtifact() != null && project.getArtifact().getFile() != null) {
+            inputs.add(project.getArtifact().getFile().toPath());
+        }
+        for (String argument : cdstraining) {
+            for (String entry : argument.split(File.pathSeparator)) {
+                if (!entry.isEmpty() && Utils.isValidPath(entry)) {
+                    inputs.add(project.getBasedir().toPath().resolve(entry));
+                }
+            }
+        }
+
+        FileTime archived = Files.getLastModifiedTime(archive);
+        for (Path input : inputs) {
+            if (Files.isRegularFile(input) && Files.getLastModifiedTime(input).compareTo(archived) > 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Run the training and dump the archive.<br>
+     * Since Java 13 the loaded classes are archived when the training exits (<code>-XX:ArchiveClassesAtExit</code>),
+     * before the class list is dumped by the training and archived by a second run (<code>-Xshare:dump</code>).
+     * Java 10 only archives the application classes with <code>-XX:+UseAppCDS</code>.
+     */
+    private void dumpArchive(Path home, Path archive) throws IOException, InterruptedException, MojoExecutionException {
+        Path java = home.resolve("bin").resolve(os == OperatingSystem.windows ? "java.exe" : "java");
+        Files.deleteIfExists(archive);
+        Files.createDirectories(archive.getParent());
+
+        long start = System.nanoTime();
+        if (version >= 13) {
+            train(java, List.of("-XX:ArchiveClassesAtExit=" + archive));
+        } else {
+            Path classList = archive.resolveSibling(archive.getFileName() + ".classlist");
+            List<String> appCds = version == 10 ? List.of("-XX:+UseAppCDS") : List.of();
+            try {
+                train(java, concat(appCds, "-Xshare:off", "-XX:DumpLoadedClassList=" + classList));
+                run(java, concat(appCds, "-Xshare:dump", "-XX:SharedClassListFile=" + classList, "-XX:SharedArchiveFile=" + archive), true);
+            } finally {
+                Files.deleteIfExists(classList);
+            }
+        }
+
+        if (!Files.isRegularFile(archive)) {
+            throw new MojoExecutionException("The training run did not create the CDS archive " + archive);
+        }
+        getLog().info("Created CDS archive " + archive + " (" + Utils.bytesToHuman(Files.size(archive)) + ") in " + millisSince(start) + "ms");
+    }
+
+    private static List<String> concat(List<String> options, String... others) {
+        List<String> all = new ArrayList<>(options);
+        all.addAll(List.of(others));
+        return all;
+    }
+
+    private void train(Path java, List<String> options) throws IOException, InterruptedException, MojoExecutionException {
+        // The training may exit with an error on purpose (e.g. a missing display), the archive is checked afterwards
+        run(java, options, false);
+    }
+
+    private void run(Path java, List<String> options, boolean failOnError) throws IOException, InterruptedException, MojoExecutionException {
+        List<String> command = new ArrayList<>();
+        command.add(java.toString());
+        command.addAll(options);
+        command.addAll(cdstraining);
+        getLog().debug(String.join(" ", command));
+
+        Path log = Files.createTempFile("jre-appcds", ".log");
+        try {
+            Process process = new ProcessBuilder(command)
+                    .directory(project.getBasedir())
+                    .redirectErrorStream(true)
+                    .redirectOutput(log.toFile())
+                    .start();
+            if (!process.waitFor(cdstimeout, TimeUnit.SECONDS)) {
+                process.destroyForcibly().waitFor();
+                throw new MojoExecutionException("The training run did not exit within " + cdstimeout + " seconds:\n" + Files.readString(log, Charset.defaultCharset()));
+            }
+            if (process.exitValue() != 0) {
+                String output = Files.readString(log, Charset.defaultCharset());
+                if (failOnError) {
+                    throw new MojoExecutionException("The CDS dump failed with exit code " + process.exitValue() + ":\n" + output);
+                }
+                getLog().warn("The training run exited with code " + process.exitValue() + ":\n" + output);
+            }
+        } finally {
+            Files.deleteIfExists(log);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Maven JRE Plugin
+ * Copyright (c) 2025 Nicolò Rebaioli
+ *
+ * This file is part of Maven JRE Plugin.
+ *
+ * Maven JRE Plugin is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Maven JRE Plugin is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Maven JRE Plugin.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.github.samurai016.plugins;
+
+import io.github.samurai016.plugins.cache.JreCache;
+import io.github.samurai016.plugins.extract.ExtractionStore;
+import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+
+import java.nio.file.Path;
+
+/**
+ * Prunes the JRE archive cache.<br>
+ * Evicts the least recently used archives until the cache fits its maximum size,
+ * then the shared extractions of the evicted archives.
+ *
+ * @author Nicolò Rebaioli
+ */
+@Mojo(name = "cache-prune", requiresProject = false, threadSafe = true)
+public class CachePruneMojo extends AbstractMojo {
+    /**
+     * The directory of the archive cache.
+     */
+    @Parameter(property = "jre.cachedir", defaultValue = "${user.home}/.m2/jre-cache")
+    String cachedir;
+
+    /**
+     * The maximum size of the archive cache, in megabytes.<br>
+     * Use 0 to empty the cache.
+     */
+    @Parameter(property = "jre.cachemaxsize", defaultValue = "2048")
+    long cachemaxsize;
+
+    /**
+     * The directory of the shared extractions.<br>
+     * Extractions whose archive is no longer cached are evicted.
+     */
+    @Parameter(property = "jre.extractionstore", defaultValue = "${session.executionRootDirectory}/target/jre-store")
+    String extractionstore;
+
+    @Override
+    public void execute() throws MojoExecutionException {
+        if (cachemaxsize < 0) {
+            throw new MojoExecutionException("The cache maximum size cannot be negative");
+        }
+        try {
+            JreCache jreCache = new JreCache(Path.of(cachedir), cachemaxsize * 1024 * 1024);
+            long freed = jreCache.prune();
+            getLog().info("Evicted " + Utils.bytesToHuman(freed) + " from " + cachedir);
+            getLog().info("Cache size: " + Utils.bytesToHuman(jreCache.size()));
+
+            if (extractionstore != null && !extractionstore.isEmpty()) {
+                ExtractionStore store = new ExtractionStore(Path.of(extractionstore));
+                long storeFreed = store.prune(jreCache::contains);
+                getLog().info("Evicted " + Utils.bytesToHuman(storeFreed) + " from " + extractionstore);
+            }
+        } catch (Throwable e) {
+            throw new MojoExecutionException(e);
+        }
+    }
+}
@@ -0,0 +1,295 @@
+/*
+ * Maven JRE Plugin
+ * Copyright (c) 2025 Nicolò Rebaioli
+ *
+ * This file is part of Maven JRE Plugin.
+ *
+ * Maven JRE Plugin is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Maven JRE Plugin is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Maven JRE Plugin.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.github.samurai016.plugins;
+
+import io.github.samurai016.plugins.adoptium.AdoptiumApi;
+import io.github.samurai016.plugins.adoptium.models.Architecture;
+import io.github.samurai016.plugins.adoptium.models.ImageType;
+import io.github.samurai016.plugins.adoptium.models.OperatingSystem;
+import io.github.samurai016.plugins.adoptium.models.Release;
+import io.github.samurai016.plugins.cache.JreCache;
+import io.github.samurai016.plugins.extract.EntryFilter;
+import io.github.samurai016.plugins.metrics.BundleMetrics;
+import io.github.samurai016.plugins.metrics.MetricsReport;
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugins.annotations.LifecyclePhase;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.plugins.annotations.ResolutionScope;
+import org.apache.maven.project.MavenProject;
+
+import java.io.File;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.spi.ToolProvider;
+
+/**
+ * Links a minimal runtime image with jlink.<br>
+ * The JDK of the target is downloaded (and cached) like any other image, the modules needed by the project
+ * are computed by jdeps from the project artifact and its runtime dependencies, and jlink links them
+ * from the JDK jmods to <code>unzipto</code>.
+ *
+ * @author Nicolò Rebaioli
+ */
+@Mojo(name = "jlink", defaultPhase = LifecyclePhase.PACKAGE, requiresDependencyResolution = ResolutionScope.RUNTIME)
+public class JlinkMojo extends AbstractJreMojo {
+    /**
+     * The architecture of the runtime.
+     */
+    @Parameter(defaultValue = "x64")
+    Architecture architecture;
+
+    /**
+     * The operating system of the runtime.
+     */
+    @Parameter(defaultValue = "windows")
+    OperatingSystem os;
+
+    /**
+     * The directory where the JDK providing the jmods is unzipped.
+     */
+    @Parameter(property = "jre.jdkdir", defaultValue = "${project.build.directory}/jlink/jdk-{{binary.os}}-{{binary.architecture}}")
+    String jdkdir;
+
+    /**
+     * The modules of the runtime.<br>
+     * If not specified, they are computed by jdeps from the project artifact and its runtime dependencies.
+     */
+    @Parameter
+    List<String> modules;
+
+    /**
+     * Modules added to the ones computed by jdeps.<br>
+     * Useful for the modules jdeps cannot detect, e.g. service providers such as <code>jdk.crypto.ec</code> or <code>jdk.localedata</code>.
+     */
+    @Parameter
+    List<String> addmodules;
+
+    /**
+     * The compression of the runtime, passed to <code>--compress</code>.<br>
+     * If not specified, <code>zip-6</code> is used for Java 21 and later, <code>2</code> before.
+     */
+    @Parameter(property = "jre.compress")
+    String compress;
+
+    /**
+     * Additional jlink options, e.g. <code>--include-locales=en</code>.
+     */
+    @Parameter
+    List<String> jlinkoptions;
+
+    @Parameter(defaultValue = "${project}", readonly = true)
+    MavenProject project;
+
+    @Override
+    public void execute() throws MojoExecutionException {
+        MetricsReport report = createMetricsReport("jlink");
+        try {
+            getLog().info("JRE Bundler Plugin");
+
+            getLog().info("Version: " + version);
+            getLog().info("JVM Implementation: " + jvmImpl);
+            getLog().info("Architecture: " + architecture);
+            getLog().info("OS: " + os);
+            getLog().info("Vendor: " + vendor);
+            getLog().info("JDK directory: " + jdkdir);
+            getLog().info("Output directory: " + unzipto);
+
+            checkParameters();
+
+            // Get the JDK, whose jmods are linked
+            AdoptiumApi api = createApi();
+            JreCache jreCache = createCache();
+            Target target = new Target(os, architecture, ImageType.jdk);
+            target.unzipto = jdkdir;
+            Release release = bundle(target, api, jreCache, getLog(), report);
+            pruneCache(jreCache);
+
+            Path jdk = Path.of(generatePath(jdkdir, release));
+            Path home = Utils.findJavaHome(jdk)
+                    .filter(path -> Files.isDirectory(path.resolve("jmods")))
+                    .orElseThrow(() -> new MojoExecutionException("No jmods found in " + jdk));
+            Set<String> moduleSet = new TreeSet<>(modules != null && !modules.isEmpty() ? modules : computeModules());
+            if (addmodules != null) {
+                moduleSet.addAll(addmodules);
+            }
+            getLog().info("Modules: " + String.join(",", moduleSet));
+
+            Path output = Path.of(generatePath(unzipto, release));
+            link(target, release, home, moduleSet, output);
+            getLog().info("Linked " + moduleSet.size() + " modules to " + output + " (" + Utils.bytesToHuman(Utils.directorySize(output)) + ")");
+
+            // The includes, the excludes and the repackaging apply to the runtime, not to the JDK it is linked from
+            int filtered = EntryFilter.of(includes, excludes).prune(output);
+            if (filtered > 0) {
+                getLog().info("Removed " + filtered + " files filtered out by the includes and excludes");
+            }
+            if (super.repackages()) {
+                BundleMetrics metrics = report.add(target + " runtime");
+                metrics.release_name = release.release_name;
+                repackage(output, release, null, getLog(), metrics);
+            }
+        } catch (MojoExecutionException e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new MojoExecutionException(e);
+        } finally {
+            writeMetricsReport(report);
+        }
+    }
+
+    @Override
+    protected void checkParameters() throws MojoExecutionException {
+        super.checkParameters();
+        if (unzipto == null || unzipto.isEmpty()) {
+            throw new MojoExecutionException("The jlink goal requires unzipto, the directory of the runtime image");
+        }
+        if (jdkdir == null || jdkdir.isEmpty() || !Utils.isValidPath(jdkdir)) {
+            throw new MojoExecutionException("Invalid JDK directory: " + jdkdir);
+        }
+        checkTemplate("jdkdir", jdkdir);
+    }
+
+    /**
+     * The JDK is extracted whole, jlink needs its jmods whatever the includes and excludes of the runtime.
+     */
+    @Override
+    protected EntryFilter entryFilter() {
+        return EntryFilter.ALL;
+    }
+
+    /**
+     * The JDK is not repackaged, the runtime linked from it is.
+     */
+    @Override
+    protected boolean repackages() {
+        return false;
+    }
+
+    /**
+     * Compute the JDK modules used by the project artifact and its runtime dependencies with jdeps.
+     */
+    private List<String> computeModules() throws MojoExecutionException {
+        ToolProvider jdeps = ToolProvider.findFirst("jdeps")
+                .orElseThrow(() -> new MojoExecutionException("jdeps is not available, run Maven with a JDK or set modules"));
+
+        List<String> inputs = new ArrayList<>();
+        File artifact = project.getArtifact() != null ? project.getArtifact().getFile() : null;
+        if (artifact != null && artifact.isFile()) {
+            inputs.add(artifact.getPath());
+        } else if (new File(project.getBuild().getOutputDirectory()).isDirectory()) {
+            inputs.add(project.getBuild().getOutputDirectory());
+        }
+        for (Artifact dependency : project.getArtifacts()) {
+            if (dependency.getFile() != null && dependency.getFile().getName().endsWith(".jar")) {
+                inputs.add(dependency.getFile().getPath());
+            }
+        }
+        if (inputs.isEmpty()) {
+            throw new MojoExecutionException("No classes to analyze with jdeps, set modules");
+        }
+
+        List<String> args = new ArrayList<>(List.of(
+                "--ignore-missing-deps",
+                "--print-module-deps",
+                "--multi-release", version >= 9 ? Integer.toString(version) : "base"
+        ));
+        args.addAll(inputs);
+        getLog().debug("jdeps " + String.join(" ", args));
+
+        StringWriter out = new StringWriter();
+        StringWriter err = new StringWriter();
+        int exitCode = jdeps.run(new PrintWriter(out), new PrintWriter(err), args.toArray(String[]::new));
+        if (exitCode != 0) {
+            throw new MojoExecutionException("jdeps failed with exit code " + exitCode + ":\n" + err + out);
+        }
+
+        // The module list is the last line, the previous ones are warnings
+        String[] lines = out.toString().trim().split("\\R");
+        String last = lines[lines.length - 1].trim();
+        if (last.isEmpty()) {
+            return List.of("java.base");
+        }
+        return Arrays.stream(last.split(",")).map(String::trim).filter(module -> !module.isEmpty()).toList();
+    }
+
+    /**
+     * Link the runtime image.<br>
+     * jlink can only link the jmods of its own feature version: the jlink of the downloaded JDK is used
+     * if it can run on the build machine, the one of the running JDK otherwise.
+     */
+    private void link(Target target, Release release, Path home, Set<String> moduleSet, Path output) throws Exception {
+        int feature = release.version != null && release.version.major > 0 ? release.version.major : version;
+        List<String> args = new ArrayList<>(List.of(
+                "--module-path", home.resolve("jmods").toString(),
+                "--add-modules", String.join(",", moduleSet),
+                "--strip-debug",
+                "--no-header-files",
+                "--no-man-pages",
+                "--compress", compress != null && !compress.isEmpty() ? compress : (feature >= 21 ? "zip-6" : "2"),
+                "--output", output.toString()
+        ));
+        if (jlinkoptions != null) {
+            args.addAll(jlinkoptions);
+        }
+
+        // jlink refuses to write to an existing directory
+        Utils.deleteRecursively(output);
+        Path parent = output.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+
+        Path executable = home.resolve("bin").resolve(os == OperatingSystem.windows ? "jlink.exe" : "jlink");
+        if (target.isHost() && Files.isExecutable(executable)) {
+            List<String> command = new ArrayList<>();
+            command.add(executable.toString());
+            command.addAll(args);
+            getLog().debug(String.join(" ", command));
+
+            Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+            String log = new String(process.getInputStream().readAllBytes(), Charset.defaultCharset());
+            int exitCode = process.waitFor();
+            if (exitCode != 0) {
+                throw new MojoExecutionException("jlink failed with exit code " + exitCode + ":\n" + log);
+            }
+            return;
+        }
+
+        if (Runtime.version().feature() != feature) {
+            throw new MojoExecutionException("Cannot link a Java " + feature + " runtime for " + target + " on this machine: "
+                    + "run Maven with a Java " + feature + " JDK (currently " + Runtime.version().feature() + ")");
+        }
+        ToolProvider jlink = ToolProvider.findFirst("jlink")
+                .orElseThrow(() -> new MojoExecutionException("jlink is not available, run Maven with a JDK"));
+        getLog().debug("jlink " + String.join(" ", args));
+
+        StringWriter out = new StringWriter();
+        int exitCode = jlink.run(new PrintWriter(out), new PrintWriter(out), args.toArray(String[]::new));
+        if (exitCode != 0) {
+            throw new MojoExecutionException("jlink failed with exit code " + exitCode + ":\n" + out);
+        }
+    }
+}
@@ -0,0 +1,161 @@
+/*
+ * Maven JRE Plugin
+ * Copyright (c) 2025 Nicolò Rebaioli
+ *
+ * This file is part of Maven JRE Plugin.
+ *
+ * Maven JRE Plugin is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Maven JRE Plugin is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Maven JRE Plugin.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.github.samurai016.plugins;
+
+import io.github.samurai016.plugins.adoptium.AdoptiumApi;
+import io.github.samurai016.plugins.adoptium.models.Architecture;
+import io.github.samurai016.plugins.adoptium.models.ImageType;
+import io.github.samurai016.plugins.adoptium.models.OperatingSystem;
+import io.github.samurai016.plugins.adoptium.models.Release;
+import io.github.samurai016.plugins.lock.JreLock;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Writes the lock file.<br>
+ * Resolves the latest release of every target which is not locked yet and pins it in <code>lockfile</code>,
+ * the targets already locked keep their release.
+ *
+ * @author Nicolò Rebaioli
+ */
+@Mojo(name = "lock")
+public class LockMojo extends AbstractJreMojo {
+    /**
+     * The platforms to lock.<br>
+     * Each target requires an <code>os</code> and an <code>architecture</code>, the <code>imagetype</code> defaults to jre.<br>
+     * If not specified, the single target given by <code>os</code>, <code>architecture</code> and <code>imagetype</code> is locked.
+     */
+    @Parameter
+    List<Target> targets;
+
+    /**
+     * The architecture of the JRE to lock, if no targets are specified.
+     */
+    @Parameter(defaultValue = "x64")
+    Architecture architecture;
+
+    /**
+     * The operating system of the JRE to lock, if no targets are specified.
+     */
+    @Parameter(defaultValue = "windows")
+    OperatingSystem os;
+
+    /**
+     * The type of image to lock, if no targets are specified.
+     */
+    @Parameter(defaultValue = "jre")
+    ImageType imagetype;
+
+    @Override
+    public void execute() throws MojoExecutionException {
+        try {
+            getLog().info("JRE Bundler Plugin");
+
+            getLog().info("Version: " + version);
+            getLog().info("JVM Implementation: " + jvmImpl);
+            getLog().info("Vendor: " + vendor);
+            getLog().info("Lock file: " + lockfile);
+
+            checkParameters();
+
+            AdoptiumApi api = createApi();
+            JreLock current = lock();
+            JreLock updated = refresh() ? new JreLock() : current;
+            int resolved = 0;
+            for (Target target : targets) {
+                String key = lockKey(target);
+                if (!refresh() && updated.get(key) != null) {
+                    getLog().info(target + " is already locked to " + updated.get(key).release_name);
+                    continue;
+                }
+                Release release = resolve(target, api, new PrefixedLog(getLog(), target.toString()));
+                Release previous = current.get(key);
+                if (previous != null && !previous.release_name.equals(release.release_name)) {
+                    getLog().info("Locked " + target + " to " + release.release_name + " (was " + previous.release_name + ")");
+                } else {
+                    getLog().info("Locked " + target + " to " + release.release_name);
+                }
+                updated.put(key, release);
+                resolved++;
+            }
+
+            if (resolved > 0 || updated.releases.size() != current.releases.size()) {
+                updated.write(Path.of(lockfile));
+                getLog().info("Wrote " + lockfile);
+            } else {
+                getLog().info("The lock file is up to date");
+            }
+        } catch (MojoExecutionException e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new MojoExecutionException(e);
+        }
+    }
+
+    /**
+     * The lock file is written by this goal, even if it does not exist yet.
+     *
+     * @return True
+     */
+    @Override
+    protected boolean usesLock() {
+        return true;
+    }
+
+    /**
+     * Whether the targets already locked are resolved again.
+     *
+     * @return False, the locked targets keep their release
+     */
+    protected boolean refresh() {
+        return false;
+    }
+
+    /**
+     * Several targets are resolved with a single request of the releases of every platform.
+     */
+    @Override
+    protected boolean batchResolution() {
+        return targets.size() > 1;
+    }
+
+    @Override
+    protected void checkParameters() throws MojoExecutionException {
+        super.checkParameters();
+        if (lockfile == null || lockfile.isEmpty()) {
+            throw new MojoExecutionException("The lock file is required");
+        }
+        if (targets == null || targets.isEmpty()) {
+            targets = List.of(new Target(os, architecture, imagetype));
+        }
+        for (Target target : targets) {
+            if (target.os == null || target.architecture == null) {
+                throw new MojoExecutionException("Every target requires an os and an architecture");
+            }
+            if (target.imagetype == null) {
+                target.imagetype = ImageType.jre;
+            }
+        }
+    }
+}
@@ -0,0 +1,44 @@
+/*
+ * Maven JRE Plugin
+ * Copyright (c) 2025 Nicolò Rebaioli
+ *
+ * This file is part of Maven JRE Plugin.
+ *
+ * Maven JRE Plugin is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Maven JRE Plugin is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Maven JRE Plugin.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.github.samurai016.plugins;
+
+import org.apache.maven.plugins.annotations.Mojo;
+
+import java.time.Duration;
+
+/**
+ * Refreshes the lock file.<br>
+ * Resolves the latest release of every target again, and drops the entries of the targets which are no longer configured.
+ * The cached API responses are always revalidated, so that a release published within <code>metadatattl</code> is not missed.
+ *
+ * @author Nicolò Rebaioli
+ */
+@Mojo(name = "lock-refresh")
+public class LockRefreshMojo extends LockMojo {
+    @Override
+    protected boolean refresh() {
+        return true;
+    }
+
+    @Override
+    protected Duration metadataTtl() {
+        return Duration.ZERO;
+    }
+}
@@ -0,0 +1,199 @@
+/*
+ * Maven JRE Plugin
+ * Copyright (c) 2025 Nicolò Rebaioli
+ *
+ * This file is part of Maven JRE Plugin.
+ *
+ * Maven JRE Plugin is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Maven JRE Plugin is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Maven JRE Plugin.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.github.samurai016.plugins;
+
+import io.github.samurai016.plugins.adoptium.AdoptiumApi;
+import io.github.samurai016.plugins.adoptium.models.ImageType;
+import io.github.samurai016.plugins.adoptium.models.Release;
+import io.github.samurai016.plugins.cache.JreCache;
+import io.github.samurai016.plugins.metrics.MetricsReport;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugins.annotations.LifecyclePhase;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Bundles the JREs of several platforms inside the project.<br>
+ * The targets are resolved, downloaded and unzipped concurrently, so the goal takes roughly as long as the slowest target.
+ *
+ * @author Nicolò Rebaioli
+ */
+@Mojo(name = "multi-jre-bundler", defaultPhase = LifecyclePhase.PACKAGE, threadSafe = true)
+public class MultiJreBundlerMojo extends AbstractJreMojo {
+    private static final Set<String> PER_TARGET_VARIABLES = Set.of("binary.os", "binary.architecture", "binary.image_type");
+
+    private final Map<Path, Target> unzipPaths = new ConcurrentHashMap<>();
+
+    /**
+     * The platforms to bundle a JRE for.<br>
+     * Each target requires an <code>os</code> and an <code>architecture</code>, the <code>imagetype</code> defaults to jre.<br>
+     * A target can also override <code>outputdir</code>, <code>outputfilename</code> and <code>unzipto</code>.
+     */
+    @Parameter(required = true)
+    List<Target> targets;
+
+    /**
+     * The maximum number of targets processed at the same time.
+     */
+    @Parameter(property = "jre.parallelism", defaultValue = "4")
+    int parallelism;
+
+    @Override
+    public void execute() throws MojoExecutionException {
+        MetricsReport report = createMetricsReport("multi-jre-bundler");
+        try {
+            getLog().info("JRE Bundler Plugin");
+
+            getLog().info("Version: " + version);
+            getLog().info("JVM Implementation: " + jvmImpl);
+            getLog().info("Vendor: " + vendor);
+            getLog().info("Parallelism: " + parallelism);
+
+            checkParameters();
+
+            // The targets are logged once checked, with their default image type
+            getLog().info("Targets: " + targets);
+
+            AdoptiumApi api = createApi();
+            JreCache jreCache = createCache();
+
+            // Bundle every target on its own virtual thread, at most parallelism at a time
+            Semaphore permits = new Semaphore(parallelism);
+            Map<Target, Future<?>> futures = new LinkedHashMap<>();
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (Target target : targets) {
+                    futures.put(target, executor.submit(() -> {
+                        permits.acquire();
+                        try {
+                            bundle(target, api, jreCache, new PrefixedLog(getLog(), target.toString()), report);
+                        } finally {
+                            permits.release();
+                        }
+                        return null;
+                    }));
+                }
+            }
+
+            // Collect the failures of every target
+            MojoExecutionException failure = null;
+            for (Map.Entry<Target, Future<?>> entry : futures.entrySet()) {
+                try {
+                    entry.getValue().get();
+                } catch (Exception e) {
+                    Throwable cause = e.getCause() != null ? e.getCause() : e;
+                    getLog().error("Failed to bundle " + entry.getKey() + ": " + cause.getMessage());
+                    if (failure == null) {
+                        failure = new MojoExecutionException("Failed to bundle " + entry.getKey(), cause);
+                    } else {
+                        failure.addSuppressed(cause);
+                    }
+                }
+            }
+            if (failure != null) {
+                throw failure;
+            }
+
+            // Keep the cache within its size limit
+            pruneCache(jreCache);
+        } catch (MojoExecutionException e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new MojoExecutionException(e);
+        } finally {
+            writeMetricsReport(report);
+        }
+    }
+
+    /**
+     * Several targets are resolved with a single request of the releases of every platform.
+     */
+    @Override
+    protected boolean batchResolution() {
+        return targets.size() > 1;
+    }
+
+    @Override
+    protected void checkParameters() throws MojoExecutionException {
+        super.checkParameters();
+        if (targets == null || targets.isEmpty()) {
+            throw new MojoExecutionException("At least one target is required");
+        }
+        if (parallelism < 1) {
+            throw new MojoExecutionException("Parallelism must be at least 1");
+        }
+
+        // Targets writing to the same fixed directory would overwrite each other
+        Set<String> unzipDirectories = new HashSet<>();
+        for (Target target : targets) {
+            if (target.os == null || target.architecture == null) {
+                throw new MojoExecutionException("Every target requires an os and an architecture");
+            }
+            if (target.imagetype == null) {
+                target.imagetype = ImageType.jre;
+            }
+            checkTemplate(target + " unzipto", target.unzipto);
+            checkTemplate(target + " outputdir", target.outputdir);
+            checkTemplate(target + " outputfilename", target.outputfilename);
+
+            // Templates which do not vary per target are checked as fixed paths, the others once rendered
+            String unzipDirectory = target.getUnzipto(unzipto);
+            if (unzipDirectory != null && !unzipDirectory.isEmpty() && !isPerTarget(unzipDirectory)
+                    && !unzipDirectories.add(unzipDirectory)) {
+                throw new MojoExecutionException("Several targets unzip to " + unzipDirectory + ", use a per-target unzipto or a {{variable}} such as {{binary.os}}");
+            }
+        }
+    }
+
+    /**
+     * Targets whose templates render to the same directory would overwrite each other:
+     * the first one keeps the directory, the others fail before writing anything.
+     */
+    @Override
+    protected void checkUnzipPath(Target target, Path unzipPath) throws MojoExecutionException {
+        Target owner = unzipPaths.putIfAbsent(unzipPath.toAbsolutePath().normalize(), target);
+        if (owner != null && owner != target) {
+            throw new MojoExecutionException("Targets " + owner + " and " + target + " both unzip to " + unzipPath
+                    + ", use a per-target unzipto or a {{variable}} such as {{binary.os}}");
+        }
+    }
+
+    /**
+     * Check if a template references a variable which differs between the targets
+     */
+    private static boolean isPerTarget(String template) {
+        return PathTemplate.compile(template).getReferencedVariables().stream().anyMatch(PER_TARGET_VARIABLES::contains);
+    }
+
+    /**
+     * The release name is the same on every platform, so the archive name (which includes os and architecture) is used instead.
+     */
+    @Override
+    protected String defaultOutputFilename(Release release) {
+        return release.binary.pkg.name;
+    }
+}
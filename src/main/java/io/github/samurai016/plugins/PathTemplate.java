@@ -0,0 +1,219 @@
+/*
+ * Maven JRE Plugin
+ * Copyright (c) 2025 Nicolò Rebaioli
+ *
+ * This file is part of Maven JRE Plugin.
+ *
+ * Maven JRE Plugin is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Maven JRE Plugin is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Maven JRE Plugin.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.github.samurai016.plugins;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.github.samurai016.plugins.adoptium.models.Release;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Compiled path template<br>
+ * A template is a path with variables in the form <code>{{variable}}</code> (or <code>{{variable:-default}}</code>),
+ * where the variable is the JSON path of a field of the release, e.g. <code>{{binary.os}}</code> or <code>{{version.semver}}</code>.<br>
+ * Templates are parsed once and cached: rendering only reads the fields referenced by the template,
+ * through accessors computed once for every field of the release.
+ *
+ * @author Nicolò Rebaioli
+ */
+public final class PathTemplate {
+    private static final String PREFIX = "{{";
+    private static final String SUFFIX = "}}";
+    private static final String DEFAULT_DELIMITER = ":-";
+    private static final Map<String, Field[]> VARIABLES = variables();
+    private static final Map<String, PathTemplate> TEMPLATES = new ConcurrentHashMap<>();
+
+    private final String[] literals;
+    private final Field[][] accessors;
+    private final String[] defaults;
+    private final List<String> variables;
+    private final List<String> unknownVariables;
+
+    private PathTemplate(String[] literals, Field[][] accessors, String[] defaults, List<String> variables, List<String> unknownVariables) {
+        this.literals = literals;
+        this.accessors = accessors;
+        this.defaults = defaults;
+        this.variables = variables;
+        this.unknownVariables = unknownVariables;
+    }
+
+    /**
+     * Compile a template, or get it from the templates already compiled
+     *
+     * @param template The template
+     * @return The compiled template
+     */
+    public static PathTemplate compile(String template) {
+        return TEMPLATES.computeIfAbsent(template, PathTemplate::parse);
+    }
+
+    /**
+     * Get the variables which can be used in a template
+     *
+     * @return The names of the variables, sorted
+     */
+    public static Set<String> getVariables() {
+        return Collections.unmodifiableSet(new TreeSet<>(VARIABLES.keySet()));
+    }
+
+    /**
+     * Get the variables of the template which are fields of a release
+     *
+     * @return The variables, in the order they appear
+     */
+    public List<String> getReferencedVariables() {
+        return variables;
+    }
+
+    /**
+     * Get the variables of the template which are not fields of a release.<br>
+     * They are rendered as they are written.
+     *
+     * @return The unknown variables, in the order they appear
+     */
+    public List<String> getUnknownVariables() {
+        return unknownVariables;
+    }
+
+    /**
+     * Render the template
+     *
+     * @param release The release which provides the values of the variables
+     * @return The path with the variables replaced
+     */
+    public String render(Release release) {
+        if (accessors.length == 0) {
+            return literals[0];
+        }
+
+        StringBuilder builder = new StringBuilder(literals[0]);
+        for (int i = 0; i < accessors.length; i++) {
+            Object value = accessors[i] != null ? read(release, accessors[i]) : null;
+            builder.append(value != null ? format(value) : defaults[i]).append(literals[i + 1]);
+        }
+        return builder.toString();
+    }
+
+    private static PathTemplate parse(String template) {
+        List<String> literals = new ArrayList<>();
+        List<Field[]> accessors = new ArrayList<>();
+        List<String> defaults = new ArrayList<>();
+        List<String> variables = new ArrayList<>();
+        List<String> unknownVariables = new ArrayList<>();
+
+        StringBuilder literal = new StringBuilder();
+        int position = 0;
+        while (true) {
+            int start = template.indexOf(PREFIX, position);
+            int end = start >= 0 ? template.indexOf(SUFFIX, start + PREFIX.length()) : -1;
+            if (end < 0) {
+                literal.append(template, position, template.length());
+                break;
+            }
+            literal.append(template, position, start);
+            position = end + SUFFIX.length();
+
+            String variable = template.substring(start + PREFIX.length(), end);
+            String defaultValue = null;
+            int delimiter = variable.indexOf(DEFAULT_DELIMITER);
+            if (delimiter >= 0) {
+                defaultValue = variable.substring(delimiter + DEFAULT_DELIMITER.length());
+                variable = variable.substring(0, delimiter);
+            }
+
+            Field[] accessor = VARIABLES.get(variable);
+            if (accessor == null && defaultValue == null) {
+                // Unknown variables are kept as they are written
+                unknownVariables.add(variable);
+                literal.append(template, start, position);
+                continue;
+            }
+            literals.add(literal.toString());
+            literal.setLength(0);
+            accessors.add(accessor);
+            if (accessor != null) {
+                variables.add(variable);
+            }
+            // Like the JSON tree of the release, missing values are rendered as "null"
+            defaults.add(defaultValue != null ? defaultValue : "null");
+        }
+        literals.add(literal.toString());
+
+        return new PathTemplate(
+                literals.toArray(String[]::new),
+                accessors.toArray(Field[][]::new),
+                defaults.toArray(String[]::new),
+                List.copyOf(variables),
+                List.copyOf(unknownVariables)
+        );
+    }
+
+    private static Object read(Release release, Field[] accessor) {
+        Object value = release;
+        try {
+            for (Field field : accessor) {
+                if (value == null) {
+                    return null;
+                }
+                value = field.get(value);
+            }
+        } catch (IllegalAccessException e) {
+            // The fields of the models are public
+            throw new IllegalStateException(e);
+        }
+        return value;
+    }
+
+    private static String format(Object value) {
+        // Dates are serialized as timestamps in the JSON tree of the release
+        return value instanceof Date date ? Long.toString(date.getTime()) : value.toString();
+    }
+
+    /**
+     * Compute the accessors of every field of a release, named as their JSON path
+     */
+    private static Map<String, Field[]> variables() {
+        Map<String, Field[]> variables = new HashMap<>();
+        collect(Release.class, "", new Field[0], variables);
+        return variables;
+    }
+
+    private static void collect(Class<?> type, String prefix, Field[] parents, Map<String, Field[]> variables) {
+        for (Field field : type.getFields()) {
+            if (Modifier.isStatic(field.getModifiers())) {
+                continue;
+            }
+            JsonProperty property = field.getAnnotation(JsonProperty.class);
+            String name = prefix + (property != null && !property.value().isEmpty() ? property.value() : field.getName());
+            Field[] accessor = Arrays.copyOf(parents, parents.length + 1);
+            accessor[parents.length] = field;
+
+            Class<?> fieldType = field.getType();
+            if (fieldType.getPackage() == Release.class.getPackage() && !fieldType.isEnum()) {
+                collect(fieldType, name + ".", accessor, variables);
+            } else {
+                variables.put(name, accessor);
+            }
+        }
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Maven JRE Plugin
+ * Copyright (c) 2025 Nicolò Rebaioli
+ *
+ * This file is part of Maven JRE Plugin.
+ *
+ * Maven JRE Plugin is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Maven JRE Plugin is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Maven JRE Plugin.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.github.samurai016.plugins;
+
+import org.apache.maven.plugin.logging.Log;
+
+/**
+ * Log which prefixes every message, used to tell apart the output of concurrent tasks
+ *
+ * @author Nicolò Rebaioli
+ */
+public class PrefixedLog implements Log {
+    private final Log delegate;
+    private final String prefix;
+
+    public PrefixedLog(Log delegate, String prefix) {
+        this.delegate = delegate;
+        this.prefix = "[" + prefix + "] ";
+    }
+
+    @Override
+    public boolean isDebugEnabled() {
+        return delegate.isDebugEnabled();
+    }
+
+    @Override
+    public void debug(CharSequence content) {
+        delegate.debug(prefix + content);
+    }
+
+    @Override
+    public void debug(CharSequence content, Throwable error) {
+        delegate.debug(prefix + content, error);
+    }
+
+    @Override
+    public void debug(Throwable error) {
+        delegate.debug(prefix + error, error);
+    }
+
+    @Override
+    public boolean isInfoEnabled() {
+        return delegate.isInfoEnabled();
+    }
+
+    @Override
+    public void info(CharSequence content) {
+        delegate.info(prefix + content);
+    }
+
+    @Override
+    public void info(CharSequence content, Throwable error) {
+        delegate.info(prefix + content, error);
+    }
+
+    @Override
+    public void info(Throwable error) {
+        delegate.info(prefix + error, error);
+    }
+
+    @Override
+    public boolean isWarnEnabled() {
+        return delegate.isWarnEnabled();
+    }
+
+    @Override
+    public void warn(CharSequence content) {
+        delegate.warn(prefix + content);
+    }
+
+    @Override
+    public void warn(CharSequence content, Throwable error) {
+        delegate.warn(prefix + content, error);
+    }
+
+    @Override
+    public void warn(Throwable error) {
+        delegate.warn(prefix + error, error);
+    }
+
+    @Override
+    public boolean isErrorEnabled() {
+        return delegate.isErrorEnabled();
+    }
+
+    @Override
+    public void error(CharSequence content) {
+        delegate.error(prefix + content);
+    }
+
+    @Override
+    public void error(CharSequence content, Throwable error) {
+        delegate.error(prefix + content, error);
+    }
+
+    @Override
+    public void error(Throwable error) {
+        delegate.error(prefix + error, error);
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Maven JRE Plugin
+ * Copyright (c) 2025 Nicolò Rebaioli
+ *
+ * This file is part of Maven JRE Plugin.
+ *
+ * Maven JRE Plugin is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Maven JRE Plugin is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Maven JRE Plugin.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.github.samurai016.plugins;
+
+import io.github.samurai016.plugins.adoptium.models.Architecture;
+import io.github.samurai016.plugins.adoptium.models.ImageType;
+import io.github.samurai016.plugins.adoptium.models.OperatingSystem;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+
+/**
+ * A platform to bundle a JRE for.<br>
+ * The output parameters are optional and override the ones of the goal.
+ *
+ * @author Nicolò Rebaioli
+ */
+public class Target {
+    /**
+     * The operating system of the JRE to download.
+     */
+    OperatingSystem os;
+
+    /**
+     * The architecture of the JRE to download.
+     */
+    Architecture architecture;
+
+    /**
+     * The type of image to download.<br>
+     * If not specified, the jre image type is used.
+     */
+    ImageType imagetype;
+
+    /**
+     * The directory where the JRE will be downloaded.<br>
+     * If not specified, the <code>outputdir</code> of the goal is used.
+     */
+    String outputdir;
+
+    /**
+     * The name of the output file.<br>
+     * If not specified, the <code>outputfilename</code> of the goal is used.
+     */
+    String outputfilename;
+
+    /**
+     * The directory where the JRE will be unzipped.<br>
+     * If not specified, the <code>unzipto</code> of the goal is used.
+     */
+    String unzipto;
+
+    @SuppressWarnings("unused")
+    public Target() {
+    }
+
+    public Target(OperatingSystem os, Architecture architecture, ImageType imagetype) {
+        this.os = os;
+        this.architecture = architecture;
+        this.imagetype = imagetype;
+    }
+
+    String getOutputdir(String defaultValue) {
+        return outputdir != null && !outputdir.isEmpty() ? outputdir : defaultValue;
+    }
+
+    String getOutputfilename(String defaultValue) {
+        return outputfilename != null && !outputfilename.isEmpty() ? outputfilename : defaultValue;
+    }
+
+    String getUnzipto(String defaultValue) {
+        return unzipto != null && !unzipto.isEmpty() ? unzipto : defaultValue;
+    }
+
+    /**
+     * Check if the target is the platform of the running JVM, i.e. if its binaries can run on the build machine.
+     *
+     * @return True if the operating system and the architecture match the ones of the build machine
+     */
+    boolean isHost() {
+        String osName = System.getProperty("os.name", "").toLowerCase(Locale.ROOT);
+        boolean musl = Files.exists(Path.of("/etc/alpine-release"));
+        boolean hostOs = switch (os) {
+            case windows -> osName.startsWith("windows");
+            case mac -> osName.startsWith("mac");
+            case linux -> osName.startsWith("linux") && !musl;
+            case alpine_linux -> osName.startsWith("linux") && musl;
+            case aix -> osName.startsWith("aix");
+            case solaris -> osName.startsWith("sunos") || osName.startsWith("solaris");
+        };
+
+        String osArch = System.getProperty("os.arch", "").toLowerCase(Locale.ROOT);
+        boolean hostArch = switch (architecture) {
+            case x64 -> osArch.equals("amd64") || osArch.equals("x86_64");
+            case x86, x32 -> osArch.equals("x86") || osArch.matches("i[3-6]86");
+            case aarch64 -> osArch.equals("aarch64") || osArch.equals("arm64");
+            default -> osArch.equals(architecture.getJsonValue());
+        };
+        return hostOs && hostArch;
+    }
+
+    @Override
+    public String toString() {
+        // Also used to report targets which are not checked yet, so missing values are rendered as "null"
+        return (os != null ? os.getJsonValue() : null) + "/"
+                + (architecture != null ? architecture.getJsonValue() : null) + "/"
+                + (imagetype != null ? imagetype.getJsonValue() : null);
+    }
+}
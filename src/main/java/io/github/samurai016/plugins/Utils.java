@@ -19,19 +19,24 @@
  */
 package io.github.samurai016.plugins;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
-
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.http.HttpClient;
 import java.net.http.HttpResponse;
 import java.nio.ByteBuffer;
-import java.nio.file.InvalidPathException;
-import java.nio.file.Path;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.text.CharacterIterator;
 import java.text.StringCharacterIterator;
+import java.time.Duration;
 import java.util.*;
 import java.util.concurrent.CompletionStage;
 import java.util.concurrent.Flow;
 import java.util.function.LongConsumer;
+import java.util.stream.Stream;
 
 /**
  * Utility class
@@ -40,54 +45,46 @@ import java.util.function.LongConsumer;
  */
 public abstract class Utils {
     /**
-     * Convert an object to a map of JsonPath -> value
-     * Example:
-     * { "a": { "b": 1, "c": 2 } }
-     * will be converted to:
-     * { "a.b": 1, "a.c": 2 }
+     * Create an HTTP client<br>
+     * The client negotiates HTTP/2 and follows redirects. Its connections are kept alive between requests,
+     * so a single client should be shared by all the requests of a build.
      *
-     * @param obj Object to convert
-     * @return Map of JsonPath -> value
+     * @return The HTTP client
      */
-    public static Map<String, String> convertObjectToJsonPathMap(Object obj) {
-        Map<String, String> result = new HashMap<>();
-        ObjectMapper objectMapper = new ObjectMapper();
-        JsonNode root = objectMapper.valueToTree(obj);  // Convert object to JsonNode tree
-        traverseJsonNode(root, "", result);
-        return result;
+    public static HttpClient newHttpClient() {
+        return newHttpClient(Duration.ofSeconds(10));
     }
 
-    private static void traverseJsonNode(JsonNode node, String path, Map<String, String> map) {
-        if (node.isValueNode()) {
-            map.put(path, node.asText());
-        } else if (node.isObject()) {
-            Iterator<Map.Entry<String, JsonNode>> fields = node.fields();
-            while (fields.hasNext()) {
-                Map.Entry<String, JsonNode> field = fields.next();
-                String currentPath = path.isEmpty() ? field.getKey() : path + "." + field.getKey();
-                traverseJsonNode(field.getValue(), currentPath, map);
-            }
-        } else if (node.isArray()) {
-            for (int i = 0; i < node.size(); i++) {
-                traverseJsonNode(node.get(i), path + "[" + i + "]", map);
-            }
-        }
+    /**
+     * Create an HTTP client with a connect timeout
+     *
+     * @param connectTimeout How long a connection can take to be established
+     * @return The HTTP client
+     * @see #newHttpClient()
+     */
+    public static HttpClient newHttpClient(Duration connectTimeout) {
+        return HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .followRedirects(HttpClient.Redirect.ALWAYS)
+                .connectTimeout(connectTimeout)
+                .build();
     }
 
     /**
-     * Create a BodyHandler that calls a callback every interval bytes received
+     * Create a BodyHandler that calls a callback with the number of bytes received, at most once per interval
      *
-     * @param interval Interval in bytes
+     * @param interval Minimum time between two calls
      * @param callback Callback to call
      * @param h BodyHandler to wrap
      * @return Wrapped BodyHandler
      * @param <T> Type of the response body
      */
-    public static <T> HttpResponse.BodyHandler<T> callbackBodyHandler(int interval, LongConsumer callback, HttpResponse.BodyHandler<T> h) {
+    public static <T> HttpResponse.BodyHandler<T> callbackBodyHandler(Duration interval, LongConsumer callback, HttpResponse.BodyHandler<T> h) {
+        long intervalNanos = interval.toNanos();
         return info -> new HttpResponse.BodySubscriber<>() {
             private final HttpResponse.BodySubscriber<T> delegateSubscriber = h.apply(info);
             private long receivedBytes = 0;
-            private long calledBytes = 0;
+            private long calledAt = System.nanoTime();
 
             @Override
             public void onSubscribe(Flow.Subscription subscription) {
@@ -96,11 +93,15 @@ public abstract class Utils {
 
             @Override
             public void onNext(List<ByteBuffer> item) {
-                receivedBytes += item.stream().mapToLong(ByteBuffer::capacity).sum();
+                // Count the bytes before the delegate consumes the buffers
+                for (ByteBuffer buffer : item) {
+                    receivedBytes += buffer.remaining();
+                }
 
-                if (receivedBytes - calledBytes > interval) {
+                long now = System.nanoTime();
+                if (now - calledAt >= intervalNanos) {
                     callback.accept(receivedBytes);
-                    calledBytes = receivedBytes;
+                    calledAt = now;
                 }
 
                 delegateSubscriber.onNext(item);
@@ -124,6 +125,49 @@ public abstract class Utils {
         };
     }
 
+    /**
+     * Create a BodyHandler that feeds every received byte to a MessageDigest<br>
+     * The checksum is computed while the body streams, so the downloaded file never has to be read again.
+     *
+     * @param digest Digest to update
+     * @param h BodyHandler to wrap
+     * @return Wrapped BodyHandler
+     * @param <T> Type of the response body
+     */
+    public static <T> HttpResponse.BodyHandler<T> digestBodyHandler(MessageDigest digest, HttpResponse.BodyHandler<T> h) {
+        return info -> new HttpResponse.BodySubscriber<>() {
+            private final HttpResponse.BodySubscriber<T> delegateSubscriber = h.apply(info);
+
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                delegateSubscriber.onSubscribe(subscription);
+            }
+
+            @Override
+            public void onNext(List<ByteBuffer> item) {
+                for (ByteBuffer buffer : item) {
+                    digest.update(buffer.duplicate());
+                }
+                delegateSubscriber.onNext(item);
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                delegateSubscriber.onError(throwable);
+            }
+
+            @Override
+            public void onComplete() {
+                delegateSubscriber.onComplete();
+            }
+
+            @Override
+            public CompletionStage<T> getBody() {
+                return delegateSubscriber.getBody();
+            }
+        };
+    }
+
     /**
      * Convert bytes to human-readable format (1024-based)
      *
@@ -164,4 +208,166 @@ public abstract class Utils {
             return false;
         }
     }
+
+    /**
+     * Compute the SHA-256 checksum of a file
+     *
+     * @param file File to hash
+     * @return Lowercase hex representation of the checksum
+     * @throws IOException If an I/O error occurs
+     */
+    public static String sha256(Path file) throws IOException {
+        MessageDigest digest = newSha256();
+        update(digest, file, Long.MAX_VALUE);
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * Compute the SHA-256 checksum of a string
+     *
+     * @param text String to hash, encoded in UTF-8
+     * @return Lowercase hex representation of the checksum
+     */
+    public static String sha256(String text) {
+        return HexFormat.of().formatHex(newSha256().digest(text.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * Feed the first bytes of a file to a MessageDigest
+     *
+     * @param digest Digest to update
+     * @param file File to read
+     * @param length Maximum number of bytes to read
+     * @throws IOException If an I/O error occurs
+     */
+    public static void update(MessageDigest digest, Path file, long length) throws IOException {
+        try (InputStream in = Files.newInputStream(file)) {
+            byte[] buffer = new byte[64 * 1024];
+            long remaining = length;
+            int read;
+            while (remaining > 0 && (read = in.read(buffer, 0, (int) Math.min(buffer.length, remaining))) != -1) {
+                digest.update(buffer, 0, read);
+                remaining -= read;
+            }
+        }
+    }
+
+    /**
+     * Create a new SHA-256 MessageDigest
+     *
+     * @return The MessageDigest
+     */
+    public static MessageDigest newSha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java platform is required to support SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Delete a file or a directory with all its contents<br>
+     * Symbolic links are deleted, not followed.
+     *
+     * @param path The file or directory to delete
+     * @throws IOException If an I/O error occurs
+     */
+    public static void deleteRecursively(Path path) throws IOException {
+        if (!Files.exists(path, LinkOption.NOFOLLOW_LINKS)) {
+            return;
+        }
+        Files.walkFileTree(path, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                Files.delete(file);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult postVisitDirectory(Path dir, IOException exc) throws IOException {
+                if (exc != null) {
+                    throw exc;
+                }
+                Files.delete(dir);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    /**
+     * Move the contents of a directory into another one, then delete it<br>
+     * If the destination does not exist, the directory is renamed. Otherwise, its files are moved one by one,
+     * replacing the existing ones. Symbolic links are moved, not followed.
+     *
+     * @param source The directory to move
+     * @param destination The destination directory
+     * @throws IOException If an I/O error occurs
+     */
+    public static void moveContents(Path source, Path destination) throws IOException {
+        if (!Files.exists(destination, LinkOption.NOFOLLOW_LINKS)) {
+            Files.move(source, destination);
+            return;
+        }
+        Files.walkFileTree(source, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                Files.createDirectories(destination.resolve(source.relativize(dir).toString()));
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                Files.move(file, destination.resolve(source.relativize(file).toString()), StandardCopyOption.REPLACE_EXISTING);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult postVisitDirectory(Path dir, IOException exc) throws IOException {
+                if (exc != null) {
+                    throw exc;
+                }
+                Files.delete(dir);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    /**
+     * Compute the total size of the regular files in a directory
+     *
+     * @param directory The directory
+     * @return The size in bytes
+     * @throws IOException If an I/O error occurs
+     */
+    public static long directorySize(Path directory) throws IOException {
+        long[] size = {0};
+        Files.walkFileTree(directory, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                if (attrs.isRegularFile()) {
+                    size[0] += attrs.size();
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        return size[0];
+    }
+
+    /**
+     * Find the home of an unzipped Java image, i.e. the directory which contains its <code>release</code> file.<br>
+     * The home is the directory itself, the nested folder when the root folder was not moved,
+     * or <code>Contents/Home</code> in mac images.
+     *
+     * @param directory The directory of the image
+     * @return The home of the image, if any
+     * @throws IOException If an I/O error occurs
+     */
+    public static Optional<Path> findJavaHome(Path directory) throws IOException {
+        try (Stream<Path> paths = Files.find(directory, 4, (path, attributes) -> attributes.isRegularFile()
+                && path.getFileName().toString().equals("release")
+                && Files.isDirectory(path.resolveSibling("bin")))) {
+            return paths.map(Path::getParent).min(Comparator.comparingInt(Path::getNameCount));
+        }
+    }
 }
@@ -20,16 +20,36 @@
 package io.github.samurai016.plugins.adoptium;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import io.github.samurai016.plugins.Utils;
 import io.github.samurai016.plugins.adoptium.models.*;
+import io.github.samurai016.plugins.cache.MetadataCache;
+import io.github.samurai016.plugins.download.IdleWatchdog;
+import io.github.samurai016.plugins.download.Mirrors;
+import io.github.samurai016.plugins.download.RequestPolicy;
 import org.apache.hc.client5.http.HttpResponseException;
 import org.apache.hc.core5.net.URIBuilder;
+import org.apache.maven.plugin.logging.SystemStreamLog;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
 
 /**
  * Adoptium API client<br>
@@ -38,7 +58,66 @@ import java.net.http.HttpResponse;
  * @author Nicolò Rebaioli
  */
 public class AdoptiumApi {
-    private static final String BASE_URL = "https://api.adoptium.net";
+    /**
+     * The URL of the Adoptium API
+     */
+    public static final String BASE_URL = "https://api.adoptium.net";
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final Map<Class<?>, ObjectReader> READERS = new ConcurrentHashMap<>();
+
+    private final HttpClient client;
+    private final MetadataCache cache;
+    private final boolean offline;
+    private final Mirrors mirrors;
+    private final RequestPolicy policy;
+    private final Map<String, CompletableFuture<ReleaseIndex>> indexes = new ConcurrentHashMap<>();
+
+    /**
+     * Create a new API client which always queries the Adoptium API
+     */
+    public AdoptiumApi() {
+        this(Utils.newHttpClient(), null, false);
+    }
+
+    /**
+     * Create a new API client backed by a metadata cache, which queries the Adoptium API
+     *
+     * @param client The HTTP client, shared with the other requests of the build
+     * @param cache The cache of the API responses, may be null
+     * @param offline If true, the responses are resolved from the cache alone
+     */
+    public AdoptiumApi(HttpClient client, MetadataCache cache, boolean offline) {
+        this(client, cache, offline, new Mirrors(client, List.of(BASE_URL), false, Duration.ofSeconds(2), new SystemStreamLog()));
+    }
+
+    /**
+     * Create a new API client backed by a metadata cache, which queries a set of mirrors of the Adoptium API
+     *
+     * @param client The HTTP client, shared with the other requests of the build
+     * @param cache The cache of the API responses, may be null
+     * @param offline If true, the responses are resolved from the cache alone
+     * @param mirrors The mirrors of the API, the responses are cached under the URL of the Adoptium API whatever mirror they come from
+     */
+    public AdoptiumApi(HttpClient client, MetadataCache cache, boolean offline, Mirrors mirrors) {
+        this(client, cache, offline, mirrors, RequestPolicy.defaults(new SystemStreamLog()));
+    }
+
+    /**
+     * Create a new API client backed by a metadata cache, which queries a set of mirrors of the Adoptium API
+     *
+     * @param client The HTTP client, shared with the other requests of the build
+     * @param cache The cache of the API responses, may be null
+     * @param offline If true, the responses are resolved from the cache alone
+     * @param mirrors The mirrors of the API, the responses are cached under the URL of the Adoptium API whatever mirror they come from
+     * @param policy The timeouts, retries and hedging of the requests
+     */
+    public AdoptiumApi(HttpClient client, MetadataCache cache, boolean offline, Mirrors mirrors, RequestPolicy policy) {
+        this.client = client;
+        this.cache = cache;
+        this.offline = offline;
+        this.mirrors = mirrors;
+        this.policy = policy;
+    }
 
     /**
      * Get the latest version of a given feature version
@@ -72,38 +151,271 @@ public class AdoptiumApi {
     }
 
     /**
-     * Make a GET request
+     * Get the latest versions of a given feature version for every platform<br>
+     * A single unfiltered request returns the releases of every operating system, architecture and image type,
+     * which are indexed in memory so that the lookups of every target are answered locally.
+     * The index is fetched once per client: concurrent callers wait for the same request.
+     *
+     * @param featureVersion The feature version to get the latest versions of
+     * @param jvmImpl The JVM implementation
+     * @param vendor The vendor
+     * @return The index of the latest releases
+     * @throws IOException If an error occurs while making the request
+     * @throws InterruptedException If the request is interrupted
+     */
+    public ReleaseIndex getLatestVersions(int featureVersion, JVMImpl jvmImpl, Vendor vendor) throws IOException, InterruptedException {
+        String url;
+        try {
+            url = new URIBuilder(BASE_URL)
+                    .setPath("/v3/assets/latest/" + featureVersion + "/" + jvmImpl.getJsonValue())
+                    .addParameter("vendor", vendor.getJsonValue())
+                    .toString();
+        } catch (URISyntaxException e) {
+            // This should never happen
+            throw new RuntimeException(e);
+        }
+
+        CompletableFuture<ReleaseIndex> index = new CompletableFuture<>();
+        CompletableFuture<ReleaseIndex> existing = indexes.putIfAbsent(url, index);
+        if (existing != null) {
+            try {
+                return existing.get();
+            } catch (ExecutionException e) {
+                throw unwrap(e);
+            }
+        }
+
+        try {
+            ReleaseIndex releases = new ReleaseIndex(get(url, Release[].class));
+            index.complete(releases);
+            return releases;
+        } catch (IOException | InterruptedException | RuntimeException e) {
+            // Forget the failure, so that a later lookup requests the index again
+            indexes.remove(url, index);
+            index.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Make a GET request<br>
+     * If a cache is configured, fresh cached responses are returned without any request
+     * and stale ones are revalidated with a conditional request.<br>
+     * Stale responses are also used when the API is unreachable or fails with a server error,
+     * but not on client errors (e.g. an unknown feature version), which are rethrown.<br>
+     * The request is sent to the fastest mirror and fails over to the others on I/O and server errors.
+     * When all the mirrors fail, the request is retried with a backoff.
+     *
      * @param url URL to make the request to
      * @param clazz Class to parse the response to
      * @return The parsed response
      */
     @SuppressWarnings("SameParameterValue")
     private <T> T get(String url, Class<T> clazz) throws IOException, InterruptedException {
-        HttpRequest request = HttpRequest.newBuilder()
-                .uri(URI.create(url))
-                .GET()
-                .build();
+        MetadataCache.Entry cached = cache != null ? cache.get(url) : null;
+        if (offline) {
+            if (cached == null) {
+                throw new IOException("Offline mode: no cached response for " + url);
+            }
+            return parse(cached.body(), clazz);
+        }
+        if (cached != null && cache.isFresh(cached)) {
+            return parse(cached.body(), clazz);
+        }
 
-        return request(request, clazz);
+        try {
+            return fetch(url, clazz, cached);
+        } catch (IOException e) {
+            // The API is unreachable, a stale response is better than a failed build
+            if (cached != null && RequestPolicy.isTransient(e)) {
+                return parse(cached.body(), clazz);
+            }
+            throw e;
+        }
     }
 
     /**
-     * Make a request
-     * @param request Request to make
+     * Fetch a response from the API, revalidating the cached one if any
+     *
+     * @param url URL to make the request to
      * @param clazz Class to parse the response to
+     * @param cached The cached response, may be null
      * @return The parsed response
      */
-    private <T> T request(HttpRequest request, Class<T> clazz) throws IOException, InterruptedException {
-        try (HttpClient client = HttpClient.newBuilder().followRedirects(HttpClient.Redirect.ALWAYS).build()) {
-            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+    private <T> T fetch(String url, Class<T> clazz, MetadataCache.Entry cached) throws IOException, InterruptedException {
+        HttpRequest.Builder builder = HttpRequest.newBuilder()
+                .timeout(policy.getReadTimeout())
+                .header("Accept-Encoding", "gzip")
+                .GET();
+        if (cached != null && cached.etag() != null) {
+            builder.header("If-None-Match", cached.etag());
+        }
+        if (cached != null && cached.lastModified() != null) {
+            builder.header("If-Modified-Since", cached.lastModified());
+        }
+
+        HttpResponse<InputStream> response = policy.retry("Request to " + url, () -> mirrors.fetch(URI.create(url), uri -> {
+            HttpResponse<InputStream> mirrorResponse = request(builder.uri(uri).build());
+            int status = mirrorResponse.statusCode();
+            // Any other answer fails over to the next mirror, e.g. the error page of a misconfigured mirror.
+            // Client errors are not transient, so the one of the last mirror fails the request
+            if (status >= 500 || status == 429) {
+                mirrorResponse.body().close();
+                throw new HttpResponseException(status, status == 429 ? "Too many requests" : "Server error");
+            }
+            if (status != 200 && (status != 304 || cached == null)) {
+                throw new HttpResponseException(status, errorMessage(mirrorResponse));
+            }
+            return mirrorResponse;
+        }));
+        try (IdleWatchdog watchdog = IdleWatchdog.watch(policy.getIdleTimeout());
+             InputStream body = body(response, watchdog)) {
+            try {
+                if (response.statusCode() == 304 && cached != null) {
+                    cache.touch(url, cached);
+                    return parse(cached.body(), clazz);
+                }
+                // Without a cache, the response is parsed while it streams
+                if (cache == null) {
+                    return reader(clazz).readValue(body);
+                }
+                byte[] json = body.readAllBytes();
+                T result = reader(clazz).readValue(json);
+                cache.put(url, new String(json, StandardCharsets.UTF_8),
+                        response.headers().firstValue("ETag").orElse(null),
+                        response.headers().firstValue("Last-Modified").orElse(null));
+                return result;
+            } catch (IOException e) {
+                if (watchdog.isExpired()) {
+                    throw watchdog.timeout(response.uri(), e);
+                }
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Make a request<br>
+     * If hedging is enabled and no response arrives within the hedge delay, a second request is sent
+     * over a new HTTP/1.1 connection and the first response wins, the other request is cancelled.
+     * @param request Request to make
+     * @return The response
+     */
+    private HttpResponse<InputStream> request(HttpRequest request) throws IOException, InterruptedException {
+        Duration hedgeDelay = policy.getHedgeDelay();
+        if (hedgeDelay.isZero()) {
+            return client.send(request, HttpResponse.BodyHandlers.ofInputStream());
+        }
 
-            if (response.statusCode() != 200) {
-                throw new HttpResponseException(response.statusCode(), response.body());
+        CompletableFuture<HttpResponse<InputStream>> primary = client.sendAsync(request, HttpResponse.BodyHandlers.ofInputStream());
+        CompletableFuture<HttpResponse<InputStream>> hedge = null;
+        try {
+            try {
+                return primary.get(hedgeDelay.toMillis(), TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                // The request is slower than usual, a second one may overtake it
+                hedge = client.sendAsync(HttpRequest.newBuilder(request, (name, value) -> true)
+                        .version(HttpClient.Version.HTTP_1_1)
+                        .build(), HttpResponse.BodyHandlers.ofInputStream());
+                return firstOf(primary, hedge).get();
+            }
+        } catch (ExecutionException e) {
+            throw unwrap(e);
+        } finally {
+            primary.cancel(true);
+            if (hedge != null) {
+                hedge.cancel(true);
             }
+        }
+    }
 
-            String json = response.body();
-            ObjectMapper mapper = new ObjectMapper();
-            return mapper.readValue(json, clazz);
+    /**
+     * Get the first successful response of two requests, closing the body of the other one
+     * @param first The first request
+     * @param second The second request
+     * @return The first successful response, or the last failure if both requests fail
+     */
+    private static CompletableFuture<HttpResponse<InputStream>> firstOf(CompletableFuture<HttpResponse<InputStream>> first,
+                                                                        CompletableFuture<HttpResponse<InputStream>> second) {
+        CompletableFuture<HttpResponse<InputStream>> winner = new CompletableFuture<>();
+        AtomicInteger failures = new AtomicInteger();
+        for (CompletableFuture<HttpResponse<InputStream>> future : List.of(first, second)) {
+            future.whenComplete((response, error) -> {
+                if (error == null) {
+                    if (!winner.complete(response)) {
+                        closeQuietly(response);
+                    }
+                } else if (failures.incrementAndGet() == 2) {
+                    winner.completeExceptionally(error);
+                }
+            });
         }
+        return winner;
+    }
+
+    private static IOException unwrap(ExecutionException e) {
+        Throwable cause = e.getCause();
+        while (cause instanceof ExecutionException || cause instanceof CompletionException) {
+            cause = cause.getCause();
+        }
+        return cause instanceof IOException io ? io : new IOException(cause);
+    }
+
+    private static void closeQuietly(HttpResponse<InputStream> response) {
+        try {
+            response.body().close();
+        } catch (IOException ignored) {
+            // The response is discarded anyway
+        }
+    }
+
+    /**
+     * Read the body of an error response, used as the message of the error
+     * @param response The response
+     * @return The body
+     */
+    private String errorMessage(HttpResponse<InputStream> response) throws IOException {
+        try (IdleWatchdog watchdog = IdleWatchdog.watch(policy.getIdleTimeout());
+             InputStream body = body(response, watchdog)) {
+            try {
+                return new String(body.readAllBytes(), StandardCharsets.UTF_8);
+            } catch (IOException e) {
+                if (watchdog.isExpired()) {
+                    throw watchdog.timeout(response.uri(), e);
+                }
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Get the body of a response, decompressed if needed
+     * @param response The response
+     * @param watchdog The watchdog of the transfer
+     * @return The body stream
+     */
+    private static InputStream body(HttpResponse<InputStream> response, IdleWatchdog watchdog) throws IOException {
+        boolean gzip = response.headers().firstValue("Content-Encoding").map("gzip"::equalsIgnoreCase).orElse(false);
+        InputStream body = watchdog.watch(response.body());
+        return gzip ? new GZIPInputStream(body) : body;
+    }
+
+    /**
+     * Parse a JSON response
+     * @param json JSON to parse
+     * @param clazz Class to parse the response to
+     * @return The parsed response
+     */
+    private static <T> T parse(String json, Class<T> clazz) throws IOException {
+        return reader(clazz).readValue(json);
+    }
+
+    /**
+     * Get the cached reader of a class
+     * @param clazz Class to parse the responses to
+     * @return The reader
+     */
+    private static ObjectReader reader(Class<?> clazz) {
+        return READERS.computeIfAbsent(clazz, MAPPER::readerFor);
     }
 }
@@ -0,0 +1,82 @@
+/*
+ * Maven JRE Plugin
+ * Copyright (c) 2025 Nicolò Rebaioli
+ *
+ * This file is part of Maven JRE Plugin.
+ *
+ * Maven JRE Plugin is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Maven JRE Plugin is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Maven JRE Plugin.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.github.samurai016.plugins.adoptium;
+
+import io.github.samurai016.plugins.adoptium.models.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-memory index of the latest releases of every platform<br>
+ * Built from a single unfiltered <code>/v3/assets/latest</code> response, it answers the lookups of every target
+ * without any further request.
+ *
+ * @author Nicolò Rebaioli
+ */
+public class ReleaseIndex {
+    private static final Release[] EMPTY = new Release[0];
+
+    private final Map<String, List<Release>> releases = new HashMap<>();
+    private final int size;
+
+    /**
+     * @param releases The releases of every platform, in the order returned by the API
+     */
+    public ReleaseIndex(Release[] releases) {
+        for (Release release : releases) {
+            if (release.binary == null) {
+                continue;
+            }
+            String key = key(release.binary.os, release.binary.architecture, release.binary.image_type, release.binary.jvm_impl);
+            this.releases.computeIfAbsent(key, k -> new ArrayList<>()).add(release);
+        }
+        this.size = releases.length;
+    }
+
+    /**
+     * Find the releases of a platform
+     *
+     * @param os The operating system
+     * @param architecture The architecture
+     * @param imageType The image type
+     * @param jvmImpl The JVM implementation
+     * @return The releases of the platform, in the order returned by the API, empty if there is none
+     */
+    public Release[] find(OperatingSystem os, Architecture architecture, ImageType imageType, JVMImpl jvmImpl) {
+        List<Release> found = releases.get(key(os.getJsonValue(), architecture.getJsonValue(), imageType.getJsonValue(), jvmImpl.getJsonValue()));
+        return found != null ? found.toArray(EMPTY) : EMPTY;
+    }
+
+    /**
+     * Get the number of indexed releases
+     *
+     * @return The number of releases of every platform
+     */
+    public int size() {
+        return size;
+    }
+
+    private static String key(String os, String architecture, String imageType, String jvmImpl) {
+        return os + "/" + architecture + "/" + imageType + "/" + jvmImpl;
+    }
+}
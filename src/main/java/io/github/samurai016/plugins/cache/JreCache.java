@@ -0,0 +1,237 @@
+/*
+ * Maven JRE Plugin
+ * Copyright (c) 2025 Nicolò Rebaioli
+ *
+ * This file is part of Maven JRE Plugin.
+ *
+ * Maven JRE Plugin is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Maven JRE Plugin is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Maven JRE Plugin.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.github.samurai016.plugins.cache;
+
+import io.github.samurai016.plugins.Utils;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Content-addressed cache of downloaded JRE archives<br>
+ * Archives are stored as <code>&lt;root&gt;/&lt;checksum&gt;/&lt;archive name&gt;</code> and evicted in LRU order
+ * once the total size of the cache exceeds the configured limit.
+ *
+ * @author Nicolò Rebaioli
+ */
+public class JreCache {
+    private static final Pattern CHECKSUM_PATTERN = Pattern.compile("^[0-9a-f]{64}$");
+
+    private final Path root;
+    private final long maxSize;
+
+    /**
+     * Create a new cache
+     *
+     * @param root The root directory of the cache
+     * @param maxSize The maximum size of the cache in bytes (0 evicts every entry, less than 0 means unbounded)
+     */
+    public JreCache(Path root, long maxSize) {
+        this.root = root;
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Check if a checksum can be used as a cache key
+     *
+     * @param checksum The SHA-256 checksum of the archive
+     * @return True if the checksum is a valid SHA-256 hex string, false otherwise
+     */
+    public static boolean isCacheable(String checksum) {
+        return checksum != null && CHECKSUM_PATTERN.matcher(checksum.toLowerCase()).matches();
+    }
+
+    /**
+     * Get a cached archive<br>
+     * The archive is verified against its checksum. Corrupted entries are evicted.
+     *
+     * @param checksum The SHA-256 checksum of the archive
+     * @param fileName The name of the archive
+     * @return The path of the cached archive, or null if it is not cached
+     * @throws IOException If an I/O error occurs
+     */
+    public Path get(String checksum, String fileName) throws IOException {
+        if (!isCacheable(checksum)) {
+            return null;
+        }
+
+        Path entry = entryPath(checksum, fileName);
+        if (!Files.isRegularFile(entry)) {
+            return null;
+        }
+
+        if (!checksum.equalsIgnoreCase(Utils.sha256(entry))) {
+            evict(entry.getParent());
+            return null;
+        }
+
+        // Mark the entry as recently used
+        Files.setLastModifiedTime(entry, FileTime.fromMillis(System.currentTimeMillis()));
+        return entry;
+    }
+
+    /**
+     * Check if an archive is cached<br>
+     * Unlike {@link #get(String, String)}, the archive is neither verified nor marked as recently used.
+     *
+     * @param checksum The SHA-256 checksum of the archive
+     * @return True if an entry exists for the checksum, false otherwise
+     */
+    public boolean contains(String checksum) {
+        return isCacheable(checksum) && Files.isDirectory(root.resolve(checksum.toLowerCase()));
+    }
+
+    /**
+     * Get the path where an archive is downloaded to be stored in the cache<br>
+     * The download must only create the file once complete (e.g. by moving a partial file into place),
+     * since an existing file is considered a cached archive.
+     *
+     * @param checksum The SHA-256 checksum of the archive
+     * @param fileName The name of the archive
+     * @return The path of the cache entry
+     * @throws IOException If an I/O error occurs
+     */
+    public Path downloadPath(String checksum, String fileName) throws IOException {
+        Path entry = entryPath(checksum, fileName);
+        Files.createDirectories(entry.getParent());
+        return entry;
+    }
+
+    /**
+     * Get the path of the file locked while an archive is downloaded to the cache,
+     * so that concurrent processes do not download it at the same time
+     *
+     * @param checksum The SHA-256 checksum of the archive
+     * @param fileName The name of the archive
+     * @return The path of the lock file
+     */
+    public Path lockPath(String checksum, String fileName) {
+        Path entry = entryPath(checksum, fileName);
+        return entry.resolveSibling(entry.getFileName() + ".lock");
+    }
+
+    /**
+     * Evict the least recently used entries until the cache fits its maximum size<br>
+     * The most recently used entry is always kept.
+     *
+     * @return The number of bytes freed
+     * @throws IOException If an I/O error occurs
+     */
+    public long prune() throws IOException {
+        return prune(maxSize);
+    }
+
+    /**
+     * Evict the least recently used entries until the cache fits the given size<br>
+     * The most recently used entry is always kept, unless the limit is 0.
+     *
+     * @param limit The maximum size of the cache in bytes (less than 0 means unbounded)
+     * @return The number of bytes freed
+     * @throws IOException If an I/O error occurs
+     */
+    public long prune(long limit) throws IOException {
+        if (limit < 0 || !Files.isDirectory(root)) {
+            return 0;
+        }
+
+        List<Entry> entries = entries();
+        entries.sort(Comparator.comparing(Entry::lastUsed));
+
+        long total = entries.stream().mapToLong(Entry::size).sum();
+        long freed = 0;
+        for (int i = 0; i < entries.size() && total > limit; i++) {
+            if (limit > 0 && i == entries.size() - 1) {
+                break;
+            }
+            Entry entry = entries.get(i);
+            evict(entry.directory());
+            total -= entry.size();
+            freed += entry.size();
+        }
+        return freed;
+    }
+
+    /**
+     * Get the total size of the cache
+     *
+     * @return The size of all the cached archives in bytes
+     * @throws IOException If an I/O error occurs
+     */
+    public long size() throws IOException {
+        return Files.isDirectory(root) ? entries().stream().mapToLong(Entry::size).sum() : 0;
+    }
+
+    /**
+     * Get the root directory of the cache
+     *
+     * @return The root directory
+     */
+    public Path getRoot() {
+        return root;
+    }
+
+    private Path entryPath(String checksum, String fileName) {
+        return root.resolve(checksum.toLowerCase()).resolve(Path.of(fileName).getFileName());
+    }
+
+    private List<Entry> entries() throws IOException {
+        List<Entry> entries = new ArrayList<>();
+        try (Stream<Path> directories = Files.list(root)) {
+            for (Path directory : directories.filter(Files::isDirectory).toList()) {
+                if (!isCacheable(directory.getFileName().toString())) {
+                    continue;
+                }
+                long size = 0;
+                FileTime lastUsed = Files.getLastModifiedTime(directory);
+                try (Stream<Path> files = Files.list(directory)) {
+                    for (Path file : files.filter(Files::isRegularFile).toList()) {
+                        size += Files.size(file);
+                        FileTime modified = Files.getLastModifiedTime(file);
+                        if (modified.compareTo(lastUsed) > 0) {
+                            lastUsed = modified;
+                        }
+                    }
+                }
+                entries.add(new Entry(directory, size, lastUsed));
+            }
+        }
+        return entries;
+    }
+
+    private static void evict(Path directory) throws IOException {
+        if (!Files.exists(directory)) {
+            return;
+        }
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    private record Entry(Path directory, long size, FileTime lastUsed) {
+    }
+}
@@ -0,0 +1,183 @@
+/*
+ * Maven JRE Plugin
+ * Copyright (c) 2025 Nicolò Rebaioli
+ *
+ * This file is part of Maven JRE Plugin.
+ *
+ * Maven JRE Plugin is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Maven JRE Plugin is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Maven JRE Plugin.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.github.samurai016.plugins.cache;
+
+import io.github.samurai016.plugins.Utils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.Properties;
+
+/**
+ * On-disk cache of API responses<br>
+ * Each response is stored together with its validators (<code>ETag</code> and <code>Last-Modified</code>),
+ * so that stale entries can be revalidated with a conditional request instead of being downloaded again.
+ *
+ * @author Nicolò Rebaioli
+ */
+public class MetadataCache {
+    private static final String BODY_SUFFIX = ".json";
+    private static final String INFO_SUFFIX = ".properties";
+
+    private final Path root;
+    private final Duration ttl;
+
+    /**
+     * Create a new metadata cache
+     *
+     * @param root The directory where the responses are stored
+     * @param ttl How long a response is considered fresh without revalidation
+     */
+    public MetadataCache(Path root, Duration ttl) {
+        this.root = root;
+        this.ttl = ttl;
+    }
+
+    /**
+     * Get a cached response
+     *
+     * @param url The URL of the request
+     * @return The cached response, or null if the URL is not cached
+     * @throws IOException If an I/O error occurs
+     */
+    public Entry get(String url) throws IOException {
+        String key = key(url);
+        Path body = root.resolve(key + BODY_SUFFIX);
+        Path info = root.resolve(key + INFO_SUFFIX);
+        if (!Files.isRegularFile(body) || !Files.isRegularFile(info)) {
+            return null;
+        }
+
+        Properties properties = new Properties();
+        try (InputStream in = Files.newInputStream(info)) {
+            properties.load(in);
+        }
+        if (!url.equals(properties.getProperty("url"))) {
+            return null;
+        }
+
+        long fetchedAt;
+        try {
+            fetchedAt = Long.parseLong(properties.getProperty("fetched", "0"));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+
+        return new Entry(
+                Files.readString(body, StandardCharsets.UTF_8),
+                properties.getProperty("etag"),
+                properties.getProperty("last-modified"),
+                fetchedAt
+        );
+    }
+
+    /**
+     * Store a response
+     *
+     * @param url The URL of the request
+     * @param body The body of the response
+     * @param etag The <code>ETag</code> header of the response, may be null
+     * @param lastModified The <code>Last-Modified</code> header of the response, may be null
+     * @throws IOException If an I/O error occurs
+     */
+    public void put(String url, String body, String etag, String lastModified) throws IOException {
+        Files.createDirectories(root);
+        String key = key(url);
+        writeAtomically(root.resolve(key + BODY_SUFFIX), body.getBytes(StandardCharsets.UTF_8));
+        writeInfo(key, url, etag, lastModified);
+    }
+
+    /**
+     * Mark a cached response as fresh again, after a successful revalidation
+     *
+     * @param url The URL of the request
+     * @param entry The revalidated entry
+     * @throws IOException If an I/O error occurs
+     */
+    public void touch(String url, Entry entry) throws IOException {
+        writeInfo(key(url), url, entry.etag(), entry.lastModified());
+    }
+
+    /**
+     * Check if a cached response is still fresh
+     *
+     * @param entry The cached response
+     * @return True if the response is younger than the TTL, false otherwise
+     */
+    public boolean isFresh(Entry entry) {
+        return System.currentTimeMillis() - entry.fetchedAt() < ttl.toMillis();
+    }
+
+    private void writeInfo(String key, String url, String etag, String lastModified) throws IOException {
+        Properties properties = new Properties();
+        properties.setProperty("url", url);
+        properties.setProperty("fetched", Long.toString(System.currentTimeMillis()));
+        if (etag != null) {
+            properties.setProperty("etag", etag);
+        }
+        if (lastModified != null) {
+            properties.setProperty("last-modified", lastModified);
+        }
+
+        Path info = root.resolve(key + INFO_SUFFIX);
+        Path temp = Files.createTempFile(root, key, ".tmp");
+        try (OutputStream out = Files.newOutputStream(temp)) {
+            properties.store(out, null);
+        }
+        move(temp, info);
+    }
+
+    private void writeAtomically(Path file, byte[] content) throws IOException {
+        Path temp = Files.createTempFile(root, file.getFileName().toString(), ".tmp");
+        Files.write(temp, content);
+        move(temp, file);
+    }
+
+    private static void move(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static String key(String url) {
+        return HexFormat.of().formatHex(Utils.newSha256().digest(url.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * A cached response
+     *
+     * @param body The body of the response
+     * @param etag The <code>ETag</code> header of the response, may be null
+     * @param lastModified The <code>Last-Modified</code> header of the response, may be null
+     * @param fetchedAt The time (in milliseconds since the epoch) the response was fetched or last revalidated
+     */
+    public record Entry(String body, String etag, String lastModified, long fetchedAt) {
+    }
+}
@@ -0,0 +1,39 @@
+/*
+ * Maven JRE Plugin
+ * Copyright (c) 2025 Nicolò Rebaioli
+ *
+ * This file is part of Maven JRE Plugin.
+ *
+ * Maven JRE Plugin is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Maven JRE Plugin is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Maven JRE Plugin.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.github.samurai016.plugins.download;
+
+import java.io.IOException;
+
+/**
+ * The checksum of a download does not match the published one<br>
+ * The download is not retried from the same source, since it would most likely get the same bytes again.
+ *
+ * @author Nicolò Rebaioli
+ */
+public class ChecksumMismatchException extends IOException {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * @param message The detail message
+     */
+    public ChecksumMismatchException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,620 @@
+/*
+ * Maven JRE Plugin
+ * Copyright (c) 2025 Nicolò Rebaioli
+ *
+ * This file is part of Maven JRE Plugin.
+ *
+ * Maven JRE Plugin is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Maven JRE Plugin is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Maven JRE Plugin.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.github.samurai016.plugins.download;
+
+import io.github.samurai016.plugins.Utils;
+import org.apache.hc.client5.http.HttpResponseException;
+import org.apache.maven.plugin.logging.Log;
+
+import java.io.EOFException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Downloads files over HTTP<br>
+ * Files can be downloaded over a single stream or split into segments fetched in parallel with
+ * <code>Range</code> requests. When the server does not support ranges, the download falls back to a single stream.<br>
+ * Interrupted downloads are kept in a <code>.part</code> file and resumed by the next attempt.<br>
+ * Every request is bounded by the timeouts of the {@link RequestPolicy}: the response headers must arrive within
+ * the read timeout, and the body must not stall for longer than the idle timeout.
+ *
+ * @author Nicolò Rebaioli
+ */
+public class Downloader {
+    private static final Duration PROGRESS_INTERVAL = Duration.ofSeconds(5);
+    private static final long MIN_SEGMENT_SIZE = 1024 * 1024; // 1MB
+    private static final Pattern CONTENT_RANGE_PATTERN = Pattern.compile("^bytes (\\d+)-(\\d+)/(\\d+|\\*)$");
+
+    private final HttpClient client;
+    private final int segments;
+    private final RequestPolicy policy;
+    private final Log log;
+    private final AtomicLong progressLoggedAt = new AtomicLong();
+    private long startedAt;
+    private volatile long firstByteAt;
+    private long receivedBytes;
+    private long checksumNanos;
+
+    /**
+     * Create a new downloader
+     *
+     * @param client The HTTP client, shared with the other requests of the build
+     * @param segments The number of segments downloaded in parallel (1 means a single stream)
+     * @param log The log to use
+     */
+    public Downloader(HttpClient client, int segments, Log log) {
+        this(client, segments, RequestPolicy.defaults(log), log);
+    }
+
+    /**
+     * Create a new downloader
+     *
+     * @param client The HTTP client, shared with the other requests of the build
+     * @param segments The number of segments downloaded in parallel (1 means a single stream)
+     * @param policy The timeouts of the requests
+     * @param log The log to use
+     */
+    public Downloader(HttpClient client, int segments, RequestPolicy policy, Log log) {
+        this.client = client;
+        this.segments = segments;
+        this.policy = policy;
+        this.log = log;
+    }
+
+    /**
+     * Download a file from a URI to a destination file.<br>
+     * The bytes are written to a <code>.part</code> file, moved to the destination once complete.
+     * If a previous attempt was interrupted, the download resumes where it stopped.<br>
+     * If a checksum is given, the SHA-256 of the file is computed while the bytes stream and the download fails on mismatch.
+     *
+     * @param uri The URI of the file to download
+     * @param destination The destination file
+     * @param fileSize The expected size of the file to download, or 0 if unknown
+     * @param checksum The expected checksum of the file, may be null
+     * @throws IOException If an I/O error occurs
+     * @throws InterruptedException If the download is interrupted
+     */
+    public void download(URI uri, Path destination, long fileSize, String checksum) throws IOException, InterruptedException {
+        start();
+
+        // Create destination directory
+        Path parent = destination.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+
+        int count = segmentCount(fileSize);
+        PartialDownload partial = PartialDownload.open(destination, uri.toString(), fileSize, checksum, count);
+        String actualChecksum = count > 1
+                ? downloadSegmented(uri, partial, fileSize, count)
+                : downloadSingle(uri, partial, fileSize);
+
+        if (checksum != null && !checksum.isEmpty()) {
+            if (actualChecksum == null) {
+                // Segments arrive out of order, so they can only be hashed once the file is complete
+                long hashStart = System.nanoTime();
+                actualChecksum = Utils.sha256(partial.getPart());
+                checksumNanos += System.nanoTime() - hashStart;
+            }
+            verifyChecksum(uri, checksum, actualChecksum, destination);
+        }
+        partial.finish(destination);
+
+        log.info("Downloaded " + destination);
+    }
+
+    /**
+     * Stream a file from a URI to a consumer, without writing it to disk first.<br>
+     * If a copy is requested, the bytes are also written to it as they pass through,
+     * and the rest of the body is read even if the consumer stops early.<br>
+     * If a checksum is given, the SHA-256 of the body is computed while it streams and the download fails on mismatch.
+     *
+     * @param uri The URI of the file to download
+     * @param fileSize The expected size of the file to download, or 0 if unknown
+     * @param checksum The expected checksum of the file, may be null
+     * @param copy The file where a copy of the bytes is written, may be null
+     * @param consumer The consumer of the body
+     * @throws IOException If an I/O error occurs
+     * @throws InterruptedException If the download is interrupted
+     */
+    public void stream(URI uri, long fileSize, String checksum, Path copy, StreamConsumer consumer) throws IOException, InterruptedException {
+        start();
+        Path part = null;
+        if (copy != null) {
+            Files.createDirectories(copy.toAbsolutePath().getParent());
+            PartialDownload.discard(copy);
+            part = copy.resolveSibling(copy.getFileName() + ".part");
+        }
+
+        String actualChecksum;
+        HttpRequest request = HttpRequest.newBuilder().uri(uri).timeout(policy.getReadTimeout()).GET().build();
+        HttpResponse<InputStream> response = client.send(request, HttpResponse.BodyHandlers.ofInputStream());
+        firstByte();
+        if (response.statusCode() != 200) {
+            response.body().close();
+            throw new HttpResponseException(response.statusCode(), "Failed to download " + uri);
+        }
+
+        try (IdleWatchdog watchdog = IdleWatchdog.watch(policy.getIdleTimeout());
+             InputStream body = watchdog.watch(response.body());
+             OutputStream out = part != null ? Files.newOutputStream(part) : OutputStream.nullOutputStream()) {
+            TeeInputStream in = new TeeInputStream(body, out, fileSize);
+            try {
+                consumer.accept(in);
+                in.transferTo(OutputStream.nullOutputStream());
+            } catch (IOException e) {
+                throw expired(watchdog, uri, e);
+            }
+            receivedBytes = in.received;
+            if (fileSize > 0 && in.received != fileSize) {
+                throw new EOFException("Incomplete download of " + uri + ": expected " + fileSize + " bytes, got " + in.received);
+            }
+            actualChecksum = HexFormat.of().formatHex(in.digest.digest());
+        }
+
+        if (checksum != null && !checksum.isEmpty()) {
+            verifyChecksum(uri, checksum, actualChecksum, copy);
+        }
+
+        if (part != null) {
+            Files.move(part, copy, StandardCopyOption.REPLACE_EXISTING);
+        }
+        log.info("Downloaded " + uri);
+    }
+
+    /**
+     * Download a file over a single stream.<br>
+     * If part of the file is already on disk, only the missing bytes are requested with a <code>Range</code> request.
+     *
+     * @return The SHA-256 checksum of the file
+     */
+    private String downloadSingle(URI uri, PartialDownload partial, long fileSize) throws IOException, InterruptedException {
+        Path part = partial.getPart();
+        long offset = partial.getResumeOffset();
+        if (fileSize > 0 && offset == fileSize) {
+            long hashStart = System.nanoTime();
+            String sha256 = Utils.sha256(part);
+            checksumNanos += System.nanoTime() - hashStart;
+            return sha256;
+        }
+
+        // The bytes already on disk are hashed first, the rest is hashed as it arrives
+        MessageDigest digest = Utils.newSha256();
+        if (offset > 0) {
+            long hashStart = System.nanoTime();
+            Utils.update(digest, part, offset);
+            checksumNanos += System.nanoTime() - hashStart;
+        }
+
+        HttpRequest request = offset > 0
+                ? rangeRequest(uri, offset, -1, false)
+                : HttpRequest.newBuilder().uri(uri).timeout(policy.getReadTimeout()).GET().build();
+        if (offset > 0) {
+            log.info("Resuming download from " + Utils.bytesToHuman(offset));
+        }
+
+        long[] start = {0};
+        IdleWatchdog watchdog = IdleWatchdog.watch(policy.getIdleTimeout());
+        HttpResponse.BodyHandler<Path> handler = info -> {
+            firstByte();
+            watchdog.progress();
+            if (offset > 0 && info.statusCode() == 206 && matchesContentRange(info.headers(), offset, fileSize)) {
+                start[0] = offset;
+                return HttpResponse.BodyHandlers.ofFile(part, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND).apply(info);
+            }
+            if (info.statusCode() == 200) {
+                digest.reset();
+                return HttpResponse.BodyHandlers.ofFile(part, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING).apply(info);
+            }
+            return HttpResponse.BodySubscribers.replacing(part);
+        };
+        HttpResponse<Path> response;
+        try {
+            response = client.send(request, Utils.callbackBodyHandler(
+                    Duration.ZERO,
+                    (received) -> watchdog.progress(),
+                    Utils.callbackBodyHandler(
+                            PROGRESS_INTERVAL,
+                            (received) -> logProgress(start[0] + received, fileSize),
+                            Utils.digestBodyHandler(digest, handler)
+                    )
+            ));
+        } catch (IOException e) {
+            throw expired(watchdog, uri, e);
+        } catch (InterruptedException e) {
+            if (watchdog.isExpired()) {
+                throw watchdog.timeout(uri, e);
+            }
+            throw e;
+        } finally {
+            watchdog.close();
+        }
+        // A resume rejected with 416, or answered with another range, would fail the same way at every attempt
+        if (offset > 0 && (response.statusCode() == 416 || (response.statusCode() == 206 && start[0] == 0))) {
+            partial.discard();
+        }
+        if (response.statusCode() != 200 && response.statusCode() != 206) {
+            throw new HttpResponseException(response.statusCode(), "Failed to download " + uri);
+        }
+        if (response.statusCode() == 206 && start[0] == 0) {
+            throw new HttpResponseException(response.statusCode(), "Unexpected response to a range request for " + uri);
+        }
+        receivedBytes = Files.size(part) - start[0];
+        if (fileSize > 0 && Files.size(part) != fileSize) {
+            throw new EOFException("Incomplete download of " + uri + ": expected " + fileSize + " bytes, got " + Files.size(part));
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * Download a file in segments fetched in parallel and written at their position in the file.<br>
+     * The first missing segment is used to probe the server: if it does not answer with a partial response,
+     * the whole body is written over a single stream.<br>
+     * Segments completed by a previous attempt are skipped.
+     *
+     * @return The SHA-256 checksum of the file if it could be computed while downloading, null otherwise
+     */
+    private String downloadSegmented(URI uri, PartialDownload partial, long fileSize, int count) throws IOException, InterruptedException {
+        Path part = partial.getPart();
+        long segmentSize = (fileSize + count - 1) / count;
+
+        List<Integer> pending = new ArrayList<>();
+        long alreadyReceived = 0;
+        for (int i = 0; i < count; i++) {
+            if (partial.isCompleted(i) && Files.isRegularFile(part) && Files.size(part) == fileSize) {
+                alreadyReceived += segmentLength(i, segmentSize, fileSize);
+            } else {
+                pending.add(i);
+            }
+        }
+        if (pending.isEmpty()) {
+            return null;
+        }
+        if (alreadyReceived > 0) {
+            log.info("Resuming download, " + Utils.bytesToHuman(alreadyReceived) + " already downloaded");
+        } else {
+            partial.reset();
+        }
+
+        // Probe the server with the first missing segment
+        int firstSegment = pending.getFirst();
+        long firstStart = firstSegment * segmentSize;
+        HttpResponse<InputStream> first = client.send(
+                rangeRequest(uri, firstStart, firstStart + segmentLength(firstSegment, segmentSize, fileSize) - 1, true),
+                HttpResponse.BodyHandlers.ofInputStream()
+        );
+        firstByte();
+        if (first.statusCode() == 200) {
+            log.info("The server does not support ranges, downloading over a single stream");
+            partial.reset();
+            MessageDigest digest = Utils.newSha256();
+            long copied = 0;
+            try (IdleWatchdog watchdog = IdleWatchdog.watch(policy.getIdleTimeout());
+                 InputStream in = new DigestInputStream(watchdog.watch(first.body()), digest);
+                 OutputStream out = Files.newOutputStream(part)) {
+                byte[] buffer = new byte[64 * 1024];
+                int read;
+                try {
+                    while ((read = in.read(buffer)) != -1) {
+                        out.write(buffer, 0, read);
+                        copied += read;
+                        reportProgress(copied, fileSize);
+                    }
+                } catch (IOException e) {
+                    throw expired(watchdog, uri, e);
+                }
+            }
+            receivedBytes = copied;
+            if (copied != fileSize) {
+                throw new EOFException("Incomplete download of " + uri + ": expected " + fileSize + " bytes, got " + copied);
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        }
+        if (first.statusCode() != 206 || !matchesContentRange(first.headers(), firstStart, fileSize)) {
+            first.body().close();
+            throw new HttpResponseException(first.statusCode(), "Unexpected response to a range request for " + uri);
+        }
+
+        // Preallocate the file, so that every segment can be written at its position
+        try (RandomAccessFile file = new RandomAccessFile(part.toFile(), "rw")) {
+            file.setLength(fileSize);
+        }
+
+        AtomicLong received = new AtomicLong(alreadyReceived);
+        try (FileChannel channel = FileChannel.open(part, StandardOpenOption.WRITE);
+             ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int segment : pending) {
+                long start = segment * segmentSize;
+                long length = segmentLength(segment, segmentSize, fileSize);
+                futures.add(executor.submit(() -> {
+                    HttpResponse<InputStream> response = segment == firstSegment
+                            ? first
+                            : client.send(rangeRequest(uri, start, start + length - 1, true), HttpResponse.BodyHandlers.ofInputStream());
+                    if (response.statusCode() != 206 || !matchesContentRange(response.headers(), start, fileSize)) {
+                        response.body().close();
+                        throw new HttpResponseException(response.statusCode(), "Unexpected response to a range request for " + uri);
+                    }
+                    writeSegment(uri, response, channel, start, length, received, fileSize);
+                    channel.force(false);
+                    partial.complete(segment);
+                    return null;
+                }));
+            }
+
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    futures.forEach(f -> f.cancel(true));
+                    if (e.getCause() instanceof IOException ioException) {
+                        throw ioException;
+                    }
+                    throw new IOException(e.getCause());
+                }
+            }
+        }
+        receivedBytes = received.get() - alreadyReceived;
+        return null;
+    }
+
+    /**
+     * Compare the checksum of a download with the expected one.<br>
+     * On mismatch, the partial download is discarded, so that the next attempt starts over.
+     */
+    private void verifyChecksum(URI uri, String expected, String actual, Path destination) throws IOException {
+        if (!expected.equalsIgnoreCase(actual)) {
+            if (destination != null) {
+                PartialDownload.discard(destination);
+            }
+            throw new ChecksumMismatchException("Checksum mismatch for " + uri + ": expected SHA-256 " + expected + ", got " + actual);
+        }
+        log.info("Verified SHA-256 checksum " + actual);
+    }
+
+    /**
+     * Write the body of a partial response at its position in the file.
+     */
+    private void writeSegment(URI uri, HttpResponse<InputStream> response, FileChannel channel, long start, long length,
+                              AtomicLong received, long fileSize) throws IOException {
+        long position = start;
+        try (IdleWatchdog watchdog = IdleWatchdog.watch(policy.getIdleTimeout());
+             InputStream in = watchdog.watch(response.body())) {
+            byte[] buffer = new byte[64 * 1024];
+            int read;
+            try {
+                while ((read = in.read(buffer)) != -1) {
+                    ByteBuffer byteBuffer = ByteBuffer.wrap(buffer, 0, read);
+                    while (byteBuffer.hasRemaining()) {
+                        position += channel.write(byteBuffer, position);
+                    }
+
+                    reportProgress(received.addAndGet(read), fileSize);
+                }
+            } catch (IOException e) {
+                throw expired(watchdog, uri, e);
+            }
+        }
+        if (position - start != length) {
+            throw new EOFException("Incomplete segment at " + start + ": expected " + length + " bytes, got " + (position - start));
+        }
+    }
+
+    /**
+     * Report the error of a transfer interrupted by its watchdog as a timeout.
+     */
+    private static IOException expired(IdleWatchdog watchdog, URI uri, IOException e) {
+        return watchdog.isExpired() ? watchdog.timeout(uri, e) : e;
+    }
+
+    private static long segmentLength(int segment, long segmentSize, long fileSize) {
+        return Math.min(segmentSize, fileSize - segment * segmentSize);
+    }
+
+    /**
+     * Create a range request.<br>
+     * Segments are requested over HTTP/1.1, so that each one gets its own connection
+     * instead of being multiplexed over a single HTTP/2 connection.
+     */
+    private HttpRequest rangeRequest(URI uri, long start, long end, boolean segment) {
+        String range = "bytes=" + start + "-" + (end >= 0 ? Long.toString(end) : "");
+        HttpRequest.Builder builder = HttpRequest.newBuilder().uri(uri).timeout(policy.getReadTimeout()).header("Range", range).GET();
+        if (segment) {
+            builder.version(HttpClient.Version.HTTP_1_1);
+        }
+        return builder.build();
+    }
+
+    private static boolean matchesContentRange(HttpHeaders headers, long start, long fileSize) {
+        String contentRange = headers.firstValue("Content-Range").orElse("");
+        Matcher matcher = CONTENT_RANGE_PATTERN.matcher(contentRange.trim());
+        if (!matcher.matches() || Long.parseLong(matcher.group(1)) != start) {
+            return false;
+        }
+        return fileSize <= 0 || matcher.group(3).equals("*") || Long.parseLong(matcher.group(3)) == fileSize;
+    }
+
+    private int segmentCount(long fileSize) {
+        if (segments <= 1 || fileSize <= 0) {
+            return 1;
+        }
+        return (int) Math.max(1, Math.min(segments, fileSize / MIN_SEGMENT_SIZE));
+    }
+
+    /**
+     * Log the progress of the download, at most once per interval whatever the number of threads reporting it.
+     */
+    private void reportProgress(long received, long fileSize) {
+        long now = System.nanoTime();
+        long last = progressLoggedAt.get();
+        if (now - last >= PROGRESS_INTERVAL.toNanos() && progressLoggedAt.compareAndSet(last, now)) {
+            logProgress(received, fileSize);
+        }
+    }
+
+    private void logProgress(long received, long fileSize) {
+        log.info(String.format("Downloaded %s/%s bytes", Utils.bytesToHuman(received), Utils.bytesToHuman(fileSize)));
+    }
+
+    private void start() {
+        startedAt = System.nanoTime();
+        progressLoggedAt.set(startedAt);
+        firstByteAt = 0;
+        receivedBytes = 0;
+        checksumNanos = 0;
+    }
+
+    private void firstByte() {
+        if (firstByteAt == 0) {
+            firstByteAt = System.nanoTime();
+        }
+    }
+
+    /**
+     * Get the time between the start of the last download and the response headers of its first request.
+     *
+     * @return The time to first byte in milliseconds, or -1 if no response was received
+     */
+    public long getTimeToFirstByte() {
+        return firstByteAt != 0 ? TimeUnit.NANOSECONDS.toMillis(firstByteAt - startedAt) : -1;
+    }
+
+    /**
+     * Get the number of bytes received from the network by the last download, excluding the resumed bytes.
+     *
+     * @return The number of bytes received
+     */
+    public long getReceivedBytes() {
+        return receivedBytes;
+    }
+
+    /**
+     * Get the time spent by the last download hashing bytes outside of the response stream
+     * (resumed bytes, or the whole file for segmented downloads).
+     *
+     * @return The checksum time in milliseconds
+     */
+    public long getChecksumTime() {
+        return TimeUnit.NANOSECONDS.toMillis(checksumNanos);
+    }
+
+    /**
+     * Consumer of a streamed download
+     */
+    @FunctionalInterface
+    public interface StreamConsumer {
+        /**
+         * Consume the body of the download
+         *
+         * @param in The body, which must not be closed
+         * @throws IOException If an I/O error occurs
+         */
+        void accept(InputStream in) throws IOException;
+    }
+
+    /**
+     * Stream which copies and hashes the bytes it reads and reports the progress of the download
+     */
+    private class TeeInputStream extends FilterInputStream {
+        private final MessageDigest digest = Utils.newSha256();
+        private final OutputStream copy;
+        private final long fileSize;
+        private long received = 0;
+
+        TeeInputStream(InputStream in, OutputStream copy, long fileSize) {
+            super(in);
+            this.copy = copy;
+            this.fileSize = fileSize;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b != -1) {
+                digest.update((byte) b);
+                copy.write(b);
+                received(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int read = super.read(b, off, len);
+            if (read > 0) {
+                digest.update(b, off, read);
+                copy.write(b, off, read);
+                received(read);
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            // Skipped bytes must still reach the copy
+            byte[] buffer = new byte[(int) Math.min(n, 8192)];
+            int read = read(buffer, 0, buffer.length);
+            return Math.max(read, 0);
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+
+        @Override
+        public void close() {
+            // The body is closed by the downloader, once it has been fully read
+        }
+
+        private void received(int bytes) {
+            received += bytes;
+            reportProgress(received, fileSize);
+        }
+    }
+}
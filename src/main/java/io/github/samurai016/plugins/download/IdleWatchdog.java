@@ -0,0 +1,146 @@
+/*
+ * Maven JRE Plugin
+ * Copyright (c) 2025 Nicolò Rebaioli
+ *
+ * This file is part of Maven JRE Plugin.
+ *
+ * Maven JRE Plugin is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Maven JRE Plugin is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Maven JRE Plugin.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.github.samurai016.plugins.download;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Watchdog of a transfer which stops receiving data<br>
+ * The HTTP client has no read timeout once the response headers are received, so a stalled connection would block forever.
+ * The watchdog is armed by the first progress, once the response headers are received (waiting for them is
+ * bounded by the request timeout). When no progress is reported within the idle timeout, the watchdog interrupts
+ * the thread of the transfer, which cancels the request, and the resulting error is reported as a timeout.
+ *
+ * @author Nicolò Rebaioli
+ */
+public final class IdleWatchdog implements AutoCloseable {
+    private static final ScheduledExecutorService SCHEDULER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "jre-idle-watchdog");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Thread thread = Thread.currentThread();
+    private final Duration timeout;
+    private final ScheduledFuture<?> task;
+    private volatile boolean armed;
+    private volatile long progressAt;
+    private boolean expired;
+    private boolean closed;
+
+    private IdleWatchdog(Duration timeout) {
+        this.timeout = timeout;
+        long period = Math.max(10, Math.min(1000, timeout.toMillis() / 4));
+        this.task = timeout.isZero() ? null : SCHEDULER.scheduleAtFixedRate(this::check, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Watch the transfer running on the current thread
+     *
+     * @param timeout How long the transfer can go without progress, zero to never time out
+     * @return The watchdog, to be closed when the transfer ends
+     */
+    public static IdleWatchdog watch(Duration timeout) {
+        return new IdleWatchdog(timeout);
+    }
+
+    /**
+     * Report that data was received, arming the watchdog
+     */
+    public void progress() {
+        progressAt = System.nanoTime();
+        armed = true;
+    }
+
+    /**
+     * Wrap a stream, so that every read reports progress, arming the watchdog
+     *
+     * @param in The stream
+     * @return The wrapped stream
+     */
+    public InputStream watch(InputStream in) {
+        progress();
+        return new FilterInputStream(in) {
+            @Override
+            public int read() throws IOException {
+                int read = super.read();
+                progress();
+                return read;
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                int read = super.read(b, off, len);
+                progress();
+                return read;
+            }
+        };
+    }
+
+    /**
+     * Check if the watchdog interrupted the transfer
+     *
+     * @return True if the transfer timed out, false otherwise
+     */
+    public synchronized boolean isExpired() {
+        return expired;
+    }
+
+    /**
+     * Create the exception which reports the timeout of the transfer
+     *
+     * @param uri The URI of the transfer
+     * @param cause The error caused by the interruption
+     * @return The timeout exception
+     */
+    public HttpTimeoutException timeout(URI uri, Exception cause) {
+        HttpTimeoutException exception = new HttpTimeoutException("No data received from " + uri + " for " + timeout.toMillis() + "ms");
+        exception.initCause(cause);
+        return exception;
+    }
+
+    private synchronized void check() {
+        if (armed && !closed && !expired && System.nanoTime() - progressAt > timeout.toNanos()) {
+            expired = true;
+            thread.interrupt();
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        closed = true;
+        if (task != null) {
+            task.cancel(false);
+        }
+        // The interruption was only meant for the transfer
+        if (expired && thread == Thread.currentThread()) {
+            Thread.interrupted();
+        }
+    }
+}
@@ -0,0 +1,202 @@
+/*
+ * Maven JRE Plugin
+ * Copyright (c) 2025 Nicolò Rebaioli
+ *
+ * This file is part of Maven JRE Plugin.
+ *
+ * Maven JRE Plugin is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Maven JRE Plugin is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Maven JRE Plugin.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.github.samurai016.plugins.download;
+
+import io.github.samurai016.plugins.Utils;
+import org.apache.maven.plugin.logging.Log;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Deduplication of concurrent downloads of the same file<br>
+ * Inside a JVM (e.g. the modules of a parallel reactor build), the callers which download the same file
+ * share a single in-flight download and wait for it.
+ * Each caller holds a {@link Lease} on the file until it is done with it, so that the file is only deleted
+ * once its last user released it.
+ * Across processes (e.g. parallel CI jobs sharing the cache), the download is serialized by a lock on a
+ * <code>.lock</code> file, and the file downloaded by another process is reused once verified.
+ *
+ * @author Nicolò Rebaioli
+ */
+public final class InFlightDownloads {
+    private static final ConcurrentHashMap<Path, Entry> DOWNLOADS = new ConcurrentHashMap<>();
+
+    private InFlightDownloads() {
+    }
+
+    /**
+     * Download a file, unless a concurrent caller is already downloading it<br>
+     * If the download of the other caller fails, this caller downloads the file itself.
+     * The returned lease must be released once the caller is done with the file.
+     *
+     * @param destination The file to download
+     * @param lockFile The file locked while the file is downloaded, to exclude other processes; null to deduplicate inside this JVM only
+     * @param checksum The SHA-256 checksum of the file, used to verify a file downloaded by another process
+     * @param log The log to use
+     * @param download The download of the file
+     * @return The lease on the downloaded file
+     * @throws Exception If the download fails
+     */
+    public static Lease download(Path destination, Path lockFile, String checksum, Log log, Download download) throws Exception {
+        Path key = destination.toAbsolutePath().normalize();
+        while (true) {
+            Entry created = new Entry();
+            // Joining an existing download takes a hold on its file, so that it is not deleted under this caller
+            Entry entry = DOWNLOADS.compute(key, (path, existing) -> {
+                if (existing == null) {
+                    return created;
+                }
+                existing.holders++;
+                return existing;
+            });
+            if (entry != created) {
+                if (!entry.future.isDone()) {
+                    log.info("Waiting for the concurrent download of " + destination.getFileName());
+                }
+                try {
+                    entry.future.join();
+                    return new Lease(key, entry, false);
+                } catch (CompletionException e) {
+                    // The other download failed, try again
+                    continue;
+                }
+            }
+
+            try {
+                boolean downloaded = lockFile != null
+                        ? downloadLocked(destination, lockFile, checksum, log, download)
+                        : run(download);
+                entry.future.complete(null);
+                return new Lease(key, entry, downloaded);
+            } catch (Throwable e) {
+                // The callers waiting for a failed download do not hold it, they retry with a new one
+                DOWNLOADS.remove(key, entry);
+                entry.future.completeExceptionally(e);
+                throw e;
+            }
+        }
+    }
+
+    private static boolean downloadLocked(Path destination, Path lockFile, String checksum, Log log, Download download) throws Exception {
+        Files.createDirectories(lockFile.toAbsolutePath().getParent());
+        try (FileChannel channel = FileChannel.open(lockFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            FileLock lock = channel.tryLock();
+            if (lock == null) {
+                log.info("Waiting for another process downloading " + destination.getFileName());
+                lock = channel.lock();
+            }
+            try {
+                // The other process may have completed the download while this one was waiting
+                if (checksum != null && Files.isRegularFile(destination) && checksum.equalsIgnoreCase(Utils.sha256(destination))) {
+                    return false;
+                }
+                return run(download);
+            } finally {
+                lock.release();
+            }
+        }
+    }
+
+    private static boolean run(Download download) throws Exception {
+        download.run();
+        return true;
+    }
+
+    /**
+     * A download shared by concurrent callers, with the number of callers still using its file
+     */
+    private static final class Entry {
+        private final CompletableFuture<Void> future = new CompletableFuture<>();
+        private int holders = 1;
+        private boolean keep;
+    }
+
+    /**
+     * The hold of a caller on a downloaded file
+     */
+    public static final class Lease {
+        private final Path file;
+        private final Entry entry;
+        private final boolean downloaded;
+        private boolean released;
+
+        private Lease(Path file, Entry entry, boolean downloaded) {
+            this.file = file;
+            this.entry = entry;
+            this.downloaded = downloaded;
+        }
+
+        /**
+         * @return True if this caller downloaded the file, false if it reuses the download of another caller
+         */
+        public boolean isDownloaded() {
+            return downloaded;
+        }
+
+        /**
+         * Release the hold of this caller on the file<br>
+         * The file is deleted once its last holder released it, unless any holder wants to keep it.
+         *
+         * @param delete True if this caller no longer needs the file, false to keep it
+         * @return True if the file was deleted
+         * @throws IOException If the file cannot be deleted
+         */
+        public synchronized boolean release(boolean delete) throws IOException {
+            if (released) {
+                return false;
+            }
+            released = true;
+            boolean[] last = {false};
+            DOWNLOADS.computeIfPresent(file, (path, current) -> {
+                if (current != entry) {
+                    return current;
+                }
+                entry.keep |= !delete;
+                if (--entry.holders > 0) {
+                    return entry;
+                }
+                last[0] = !entry.keep;
+                return null;
+            });
+            return last[0] && Files.deleteIfExists(file);
+        }
+    }
+
+    /**
+     * A download
+     */
+    @FunctionalInterface
+    public interface Download {
+        /**
+         * Download the file
+         *
+         * @throws Exception If the download fails
+         */
+        void run() throws Exception;
+    }
+}
@@ -0,0 +1,201 @@
+/*
+ * Maven JRE Plugin
+ * Copyright (c) 2025 Nicolò Rebaioli
+ *
+ * This file is part of Maven JRE Plugin.
+ *
+ * Maven JRE Plugin is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Maven JRE Plugin is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Maven JRE Plugin.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.github.samurai016.plugins.download;
+
+import org.apache.maven.plugin.logging.Log;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mirrors of a remote service<br>
+ * A resource is fetched from the mirror which answers a <code>HEAD</code> probe first, i.e. the fastest healthy one,
+ * and the other mirrors are tried in turn when it fails.
+ * The path of the resource is appended to the URL of each mirror, so a mirror must have the same layout as the origin.
+ *
+ * @author Nicolò Rebaioli
+ */
+public class Mirrors {
+    private final HttpClient client;
+    private final List<String> urls;
+    private final boolean origin;
+    private final Duration probeTimeout;
+    private final Log log;
+
+    /**
+     * Create a new set of mirrors
+     *
+     * @param client The HTTP client, shared with the other requests of the build
+     * @param urls The base URLs of the mirrors
+     * @param origin If true, the resource is also fetched from its original URL, after the mirrors
+     * @param probeTimeout How long a mirror can take to answer the probe
+     * @param log The log to use
+     */
+    public Mirrors(HttpClient client, List<String> urls, boolean origin, Duration probeTimeout, Log log) {
+        this.client = client;
+        this.urls = urls.stream().map(url -> url.endsWith("/") ? url.substring(0, url.length() - 1) : url).toList();
+        this.origin = origin;
+        this.probeTimeout = probeTimeout;
+        this.log = log;
+    }
+
+    /**
+     * Get the URLs a resource can be fetched from
+     *
+     * @param resource The URL of the resource
+     * @return The URL of the resource on each mirror, in the configured order
+     */
+    public List<URI> candidates(URI resource) {
+        Set<URI> candidates = new LinkedHashSet<>();
+        String path = resource.getRawPath() + (resource.getRawQuery() != null ? "?" + resource.getRawQuery() : "");
+        for (String url : urls) {
+            candidates.add(URI.create(url + path));
+        }
+        if (origin) {
+            candidates.add(resource);
+        }
+        return new ArrayList<>(candidates);
+    }
+
+    /**
+     * Fetch a resource, failing over to the next mirror on I/O errors<br>
+     * The mirrors are probed first: the fastest healthy one is tried first, the unhealthy ones last.
+     *
+     * @param resource The URL of the resource
+     * @param fetch The fetch of the resource from a mirror
+     * @param <T> The type of the result
+     * @return The result of the first successful fetch
+     * @throws IOException If the resource cannot be fetched from any mirror
+     * @throws InterruptedException If the fetch is interrupted
+     */
+    public <T> T fetch(URI resource, Fetch<T> fetch) throws IOException, InterruptedException {
+        List<URI> candidates = rank(candidates(resource));
+        IOException failure = null;
+        for (Iterator<URI> iterator = candidates.iterator(); iterator.hasNext(); ) {
+            URI candidate = iterator.next();
+            try {
+                return fetch.apply(candidate);
+            } catch (IOException e) {
+                if (failure == null) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+                if (iterator.hasNext()) {
+                    log.warn("Failed to fetch " + candidate + " (" + e.getMessage() + "), trying the next mirror");
+                }
+            }
+        }
+        throw Objects.requireNonNull(failure);
+    }
+
+    /**
+     * Rank the URLs of a resource by probing them with a <code>HEAD</code> request<br>
+     * The first healthy answer is the fastest mirror: it comes first, followed by the other healthy mirrors in the order they answered,
+     * by the mirrors which did not answer yet and by the unhealthy ones.
+     *
+     * @param candidates The URLs of the resource
+     * @return The ranked URLs
+     * @throws InterruptedException If the probe is interrupted
+     */
+    List<URI> rank(List<URI> candidates) throws InterruptedException {
+        if (candidates.size() < 2) {
+            return candidates;
+        }
+
+        long start = System.nanoTime();
+        BlockingQueue<Map.Entry<URI, Boolean>> probes = new LinkedBlockingQueue<>();
+        for (URI candidate : candidates) {
+            HttpRequest request = HttpRequest.newBuilder(candidate)
+                    .method("HEAD", HttpRequest.BodyPublishers.noBody())
+                    .timeout(probeTimeout)
+                    .build();
+            client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, error) -> probes.add(Map.entry(candidate, error == null && isHealthy(response.statusCode()))));
+        }
+
+        URI fastest = null;
+        Set<URI> unhealthy = new LinkedHashSet<>();
+        long deadline = start + probeTimeout.toNanos();
+        while (fastest == null && unhealthy.size() < candidates.size()) {
+            Map.Entry<URI, Boolean> probe = probes.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+            if (probe == null) {
+                break;
+            }
+            if (probe.getValue()) {
+                fastest = probe.getKey();
+            } else {
+                unhealthy.add(probe.getKey());
+            }
+        }
+
+        Set<URI> ranked = new LinkedHashSet<>();
+        if (fastest != null) {
+            log.info("Selected " + fastest.getScheme() + "://" + fastest.getAuthority() + " ("
+                    + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + "ms)");
+            ranked.add(fastest);
+        }
+        // The probes answered in the meantime are ranked by latency as well
+        for (Map.Entry<URI, Boolean> probe = probes.poll(); probe != null; probe = probes.poll()) {
+            (probe.getValue() ? ranked : unhealthy).add(probe.getKey());
+        }
+        for (URI candidate : candidates) {
+            if (!unhealthy.contains(candidate)) {
+                ranked.add(candidate);
+            }
+        }
+        ranked.addAll(unhealthy);
+        return new ArrayList<>(ranked);
+    }
+
+    /**
+     * Check if the answer to a probe comes from a healthy mirror<br>
+     * Servers which do not allow <code>HEAD</code> requests are considered healthy.
+     */
+    private static boolean isHealthy(int statusCode) {
+        return statusCode < 400 || statusCode == 405;
+    }
+
+    /**
+     * Fetch of a resource from a mirror
+     *
+     * @param <T> The type of the result
+     */
+    @FunctionalInterface
+    public interface Fetch<T> {
+        /**
+         * Fetch the resource
+         *
+         * @param uri The URL of the resource on the mirror
+         * @return The result
+         * @throws IOException If the resource cannot be fetched, the next mirror is tried
+         * @throws InterruptedException If the fetch is interrupted
+         */
+        T apply(URI uri) throws IOException, InterruptedException;
+    }
+}
@@ -0,0 +1,217 @@
+/*
+ * Maven JRE Plugin
+ * Copyright (c) 2025 Nicolò Rebaioli
+ *
+ * This file is part of Maven JRE Plugin.
+ *
+ * Maven JRE Plugin is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Maven JRE Plugin is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Maven JRE Plugin.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.github.samurai016.plugins.download;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.*;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+/**
+ * State of an interrupted download<br>
+ * The bytes are written to a <code>.part</code> file next to the destination and a small sidecar
+ * (<code>.part.properties</code>) records what is being downloaded, so that a later attempt can resume
+ * instead of starting over.
+ *
+ * @author Nicolò Rebaioli
+ */
+class PartialDownload {
+    private static final String PART_SUFFIX = ".part";
+    private static final String SIDECAR_SUFFIX = ".part.properties";
+
+    private final Path part;
+    private final Path sidecar;
+    private final String url;
+    private final long size;
+    private final String checksum;
+    private final int segments;
+    private final Set<Integer> completedSegments = new TreeSet<>();
+
+    private PartialDownload(Path destination, String url, long size, String checksum, int segments) {
+        this.part = destination.resolveSibling(destination.getFileName() + PART_SUFFIX);
+        this.sidecar = destination.resolveSibling(destination.getFileName() + SIDECAR_SUFFIX);
+        this.url = url;
+        this.size = size;
+        this.checksum = checksum;
+        this.segments = segments;
+    }
+
+    /**
+     * Open the partial download of a file<br>
+     * If a previous attempt downloaded the same file with the same layout, its progress is kept,
+     * otherwise the leftovers are discarded.
+     *
+     * @param destination The destination file
+     * @param url The URL of the file
+     * @param size The expected size of the file, or 0 if unknown
+     * @param checksum The expected checksum of the file, may be null
+     * @param segments The number of segments of the download (1 means a single stream)
+     * @return The partial download
+     * @throws IOException If an I/O error occurs
+     */
+    static PartialDownload open(Path destination, String url, long size, String checksum, int segments) throws IOException {
+        PartialDownload download = new PartialDownload(destination, url, size, checksum, segments);
+        if (!download.load()) {
+            Files.deleteIfExists(download.part);
+            Files.deleteIfExists(download.sidecar);
+        }
+        download.save();
+        return download;
+    }
+
+    /**
+     * Discard the partial download of a file, if any
+     *
+     * @param destination The destination file
+     * @throws IOException If an I/O error occurs
+     */
+    static void discard(Path destination) throws IOException {
+        Files.deleteIfExists(destination.resolveSibling(destination.getFileName() + PART_SUFFIX));
+        Files.deleteIfExists(destination.resolveSibling(destination.getFileName() + SIDECAR_SUFFIX));
+    }
+
+    /**
+     * Get the <code>.part</code> file the bytes are written to
+     *
+     * @return The path of the <code>.part</code> file
+     */
+    Path getPart() {
+        return part;
+    }
+
+    /**
+     * Get the number of contiguous bytes already downloaded by a single stream download
+     *
+     * @return The offset to resume from
+     * @throws IOException If an I/O error occurs
+     */
+    long getResumeOffset() throws IOException {
+        if (segments > 1 || !Files.isRegularFile(part)) {
+            return 0;
+        }
+        long offset = Files.size(part);
+        return size > 0 && offset > size ? 0 : offset;
+    }
+
+    /**
+     * Check if a segment has already been downloaded
+     *
+     * @param segment The index of the segment
+     * @return True if the segment is complete, false otherwise
+     */
+    synchronized boolean isCompleted(int segment) {
+        return completedSegments.contains(segment);
+    }
+
+    /**
+     * Record a downloaded segment
+     *
+     * @param segment The index of the segment
+     * @throws IOException If an I/O error occurs
+     */
+    synchronized void complete(int segment) throws IOException {
+        completedSegments.add(segment);
+        save();
+    }
+
+    /**
+     * Forget every downloaded segment, used when the download restarts from scratch
+     *
+     * @throws IOException If an I/O error occurs
+     */
+    synchronized void reset() throws IOException {
+        completedSegments.clear();
+        save();
+    }
+
+    /**
+     * Delete the <code>.part</code> file and the sidecar, used when the bytes already downloaded cannot be resumed
+     *
+     * @throws IOException If an I/O error occurs
+     */
+    synchronized void discard() throws IOException {
+        completedSegments.clear();
+        Files.deleteIfExists(part);
+        Files.deleteIfExists(sidecar);
+    }
+
+    /**
+     * Move the <code>.part</code> file to its destination and remove the sidecar
+     *
+     * @param destination The destination file
+     * @throws IOException If an I/O error occurs
+     */
+    void finish(Path destination) throws IOException {
+        try {
+            Files.move(part, destination, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(part, destination, StandardCopyOption.REPLACE_EXISTING);
+        }
+        Files.deleteIfExists(sidecar);
+    }
+
+    private boolean load() throws IOException {
+        if (!Files.isRegularFile(part) || !Files.isRegularFile(sidecar)) {
+            return false;
+        }
+
+        Properties properties = new Properties();
+        try (InputStream in = Files.newInputStream(sidecar)) {
+            properties.load(in);
+        }
+        // With a checksum, the bytes are the same whatever mirror they come from
+        boolean sameFile = url.equals(properties.getProperty("url")) || (checksum != null && !checksum.isEmpty());
+        boolean matches = sameFile
+                && Long.toString(size).equals(properties.getProperty("size"))
+                && Objects.equals(Objects.toString(checksum, ""), properties.getProperty("checksum", ""))
+                && Integer.toString(segments).equals(properties.getProperty("segments"));
+        if (!matches) {
+            return false;
+        }
+
+        String completed = properties.getProperty("completed", "");
+        if (!completed.isEmpty()) {
+            try {
+                Arrays.stream(completed.split(",")).map(Integer::parseInt).forEach(completedSegments::add);
+            } catch (NumberFormatException e) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void save() throws IOException {
+        Properties properties = new Properties();
+        properties.setProperty("url", url);
+        properties.setProperty("size", Long.toString(size));
+        properties.setProperty("checksum", Objects.toString(checksum, ""));
+        properties.setProperty("segments", Integer.toString(segments));
+        properties.setProperty("completed", completedSegments.stream().map(String::valueOf).collect(Collectors.joining(",")));
+        try (OutputStream out = Files.newOutputStream(sidecar)) {
+            properties.store(out, null);
+        }
+    }
+}
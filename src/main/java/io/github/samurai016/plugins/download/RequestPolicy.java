@@ -0,0 +1,173 @@
+/*
+ * Maven JRE Plugin
+ * Copyright (c) 2025 Nicolò Rebaioli
+ *
+ * This file is part of Maven JRE Plugin.
+ *
+ * Maven JRE Plugin is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Maven JRE Plugin is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Maven JRE Plugin.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.github.samurai016.plugins.download;
+
+import org.apache.hc.client5.http.HttpResponseException;
+import org.apache.maven.plugin.logging.Log;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.SocketException;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Timeouts and retries of the HTTP requests<br>
+ * Idempotent requests which fail with a network error, a timeout or a transient server error are retried
+ * with an exponential backoff and jitter, so that concurrent builds do not retry in lockstep.
+ *
+ * @author Nicolò Rebaioli
+ */
+public class RequestPolicy {
+    private static final long MAX_RETRY_DELAY = 30_000;
+
+    private final Duration readTimeout;
+    private final Duration idleTimeout;
+    private final int retries;
+    private final Duration retryDelay;
+    private final Duration hedgeDelay;
+    private final Log log;
+
+    /**
+     * Create a new policy
+     *
+     * @param readTimeout How long a request can wait for the response headers
+     * @param idleTimeout How long a response body can go without receiving data, zero to never time out
+     * @param retries The maximum number of retries of a failed request
+     * @param retryDelay The delay before the first retry, doubled at every retry
+     * @param hedgeDelay How long an API request can wait before a second one is sent, zero to never hedge
+     * @param log The log to use
+     */
+    public RequestPolicy(Duration readTimeout, Duration idleTimeout, int retries, Duration retryDelay, Duration hedgeDelay, Log log) {
+        this.readTimeout = readTimeout;
+        this.idleTimeout = idleTimeout;
+        this.retries = retries;
+        this.retryDelay = retryDelay;
+        this.hedgeDelay = hedgeDelay;
+        this.log = log;
+    }
+
+    /**
+     * Create the default policy: 30 seconds timeouts, 3 retries from 500ms and no hedging
+     *
+     * @param log The log to use
+     * @return The default policy
+     */
+    public static RequestPolicy defaults(Log log) {
+        return new RequestPolicy(Duration.ofSeconds(30), Duration.ofSeconds(30), 3, Duration.ofMillis(500), Duration.ZERO, log);
+    }
+
+    /**
+     * Run an idempotent request, retrying it when it fails with a transient error
+     *
+     * @param description The description of the request, for the log
+     * @param request The request
+     * @param <T> The type of the result
+     * @return The result of the request
+     * @throws IOException If the request fails after all the retries, or with an error which is not transient
+     * @throws InterruptedException If the request is interrupted
+     */
+    public <T> T retry(String description, Request<T> request) throws IOException, InterruptedException {
+        for (int attempt = 0; ; attempt++) {
+            try {
+                return request.run();
+            } catch (IOException e) {
+                if (attempt >= retries || !isTransient(e)) {
+                    throw e;
+                }
+                // Equal jitter: half of the delay is fixed, the other half is random
+                long delay = Math.min(MAX_RETRY_DELAY, retryDelay.toMillis() << Math.min(attempt, 20));
+                delay = delay / 2 + ThreadLocalRandom.current().nextLong(delay / 2 + 1);
+                log.warn(description + " failed (" + e.getMessage() + "), retrying in " + delay + "ms ("
+                        + (attempt + 1) + "/" + retries + ")");
+                Thread.sleep(delay);
+            }
+        }
+    }
+
+    /**
+     * Check if an error may not happen again<br>
+     * Only network failures are transient: timeouts, connection failures, bodies cut short and server errors.
+     * Client errors, checksum mismatches and local errors (e.g. a full disk or a denied access) are not.
+     * The HTTP client wraps the failures of the connection, so the causes of an error are checked as well.
+     * An error which aggregates the failures of several mirrors is transient if any of them is.
+     *
+     * @param e The error
+     * @return True if the request should be retried, false otherwise
+     */
+    public static boolean isTransient(IOException e) {
+        return isNetworkFailure(e) || Arrays.stream(e.getSuppressed())
+                .anyMatch(suppressed -> suppressed instanceof IOException io && isTransient(io));
+    }
+
+    private static boolean isNetworkFailure(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof HttpResponseException response) {
+                return response.getStatusCode() >= 500
+                        || response.getStatusCode() == 408
+                        || response.getStatusCode() == 429;
+            }
+            if (cause instanceof HttpTimeoutException || cause instanceof SocketException || cause instanceof EOFException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return How long a request can wait for the response headers
+     */
+    public Duration getReadTimeout() {
+        return readTimeout;
+    }
+
+    /**
+     * @return How long a response body can go without receiving data
+     */
+    public Duration getIdleTimeout() {
+        return idleTimeout;
+    }
+
+    /**
+     * @return How long an API request can wait before a second one is sent, zero to never hedge
+     */
+    public Duration getHedgeDelay() {
+        return hedgeDelay;
+    }
+
+    /**
+     * An idempotent request
+     *
+     * @param <T> The type of the result
+     */
+    @FunctionalInterface
+    public interface Request<T> {
+        /**
+         * Run the request
+         *
+         * @return The result
+         * @throws IOException If the request fails
+         * @throws InterruptedException If the request is interrupted
+         */
+        T run() throws IOException, InterruptedException;
+    }
+}
@@ -0,0 +1,170 @@
+/*
+ * Maven JRE Plugin
+ * Copyright (c) 2025 Nicolò Rebaioli
+ *
+ * This file is part of Maven JRE Plugin.
+ *
+ * Maven JRE Plugin is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Maven JRE Plugin is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Maven JRE Plugin.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.github.samurai016.plugins.extract;
+
+import io.github.samurai016.plugins.Utils;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Base class of the archive extractors<br>
+ * Provides the helpers for the <code>movetoroot</code> option, the entry filter and the protection against entries escaping the destination.
+ *
+ * @author Nicolò Rebaioli
+ */
+public abstract class AbstractExtractor implements ArchiveExtractor {
+    protected final boolean moveToRoot;
+    protected final EntryFilter filter;
+    private final LongAdder filesWritten = new LongAdder();
+    private final LongAdder bytesWritten = new LongAdder();
+    private final LongAdder filesFiltered = new LongAdder();
+
+    /**
+     * @param moveToRoot If true, the first-level folder of the archive is stripped from the entry names
+     */
+    protected AbstractExtractor(boolean moveToRoot) {
+        this(moveToRoot, EntryFilter.ALL);
+    }
+
+    /**
+     * @param moveToRoot If true, the first-level folder of the archive is stripped from the entry names
+     * @param filter The filter of the entries to extract
+     */
+    protected AbstractExtractor(boolean moveToRoot, EntryFilter filter) {
+        this.moveToRoot = moveToRoot;
+        this.filter = filter;
+    }
+
+    @Override
+    public long getFilesWritten() {
+        return filesWritten.sum();
+    }
+
+    @Override
+    public long getBytesWritten() {
+        return bytesWritten.sum();
+    }
+
+    @Override
+    public long getFilesFiltered() {
+        return filesFiltered.sum();
+    }
+
+    /**
+     * Check if an entry passes the filter, counting the skipped files
+     *
+     * @param name The name of the entry relative to the destination
+     * @param directory True if the entry is a directory
+     * @return True if the entry must be extracted, false otherwise
+     */
+    protected boolean accepts(String name, boolean directory) {
+        if (filter.accepts(name)) {
+            return true;
+        }
+        if (!directory) {
+            filesFiltered.increment();
+        }
+        return false;
+    }
+
+    /**
+     * Count a file written by the extraction
+     *
+     * @param bytes The size of the file
+     */
+    protected void written(long bytes) {
+        filesWritten.increment();
+        bytesWritten.add(bytes);
+    }
+
+    /**
+     * Resolve the path of an entry inside the destination directory
+     *
+     * @param destination The destination directory
+     * @param name The name of the entry
+     * @return The path of the entry
+     * @throws IOException If the entry would be written outside the destination
+     */
+    protected static Path resolveEntry(Path destination, String name) throws IOException {
+        Path root = destination.toAbsolutePath().normalize();
+        Path path = root.resolve(name.replace('\\', '/')).normalize();
+        if (!path.startsWith(root)) {
+            throw new IOException("Archive entry outside of the destination directory: " + name);
+        }
+        return path;
+    }
+
+    /**
+     * Move a file or a directory<br>
+     * If it cannot be renamed (e.g. the target is on another file system or already exists),
+     * it is copied with {@link FileChannel#transferTo} and then deleted.
+     *
+     * @param source The file or directory to move
+     * @param target The new path
+     * @throws IOException If the file cannot be moved nor copied
+     */
+    protected static void move(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target);
+        } catch (IOException e) {
+            copyTree(source, target);
+            Utils.deleteRecursively(source);
+        }
+    }
+
+    private static void copyTree(Path source, Path target) throws IOException {
+        boolean posix = FileSystems.getDefault().supportedFileAttributeViews().contains("posix");
+        Files.walkFileTree(source, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                Files.createDirectories(target.resolve(source.relativize(dir)));
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                Path copy = target.resolve(source.relativize(file));
+                Files.deleteIfExists(copy);
+                if (attrs.isSymbolicLink()) {
+                    Files.createSymbolicLink(copy, Files.readSymbolicLink(file));
+                    return FileVisitResult.CONTINUE;
+                }
+
+                try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ);
+                     FileChannel out = FileChannel.open(copy, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+                    long position = 0;
+                    long size = in.size();
+                    while (position < size) {
+                        position += in.transferTo(position, size - position, out);
+                    }
+                }
+                Files.setLastModifiedTime(copy, attrs.lastModifiedTime());
+                if (posix) {
+                    Files.setPosixFilePermissions(copy, Files.getPosixFilePermissions(file));
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+}
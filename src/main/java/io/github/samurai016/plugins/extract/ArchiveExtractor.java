@@ -0,0 +1,72 @@
+/*
+ * Maven JRE Plugin
+ * Copyright (c) 2025 Nicolò Rebaioli
+ *
+ * This file is part of Maven JRE Plugin.
+ *
+ * Maven JRE Plugin is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Maven JRE Plugin is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Maven JRE Plugin.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.github.samurai016.plugins.extract;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+
+/**
+ * Extracts an archive to a directory<br>
+ * The archive can either be read from a file or streamed, e.g. straight from the body of an HTTP response.
+ *
+ * @author Nicolò Rebaioli
+ */
+public interface ArchiveExtractor {
+    /**
+     * Extract an archive file
+     *
+     * @param archive The archive to extract
+     * @param destination The directory where to extract the archive
+     * @throws IOException If an I/O error occurs
+     */
+    void extract(Path archive, Path destination) throws IOException;
+
+    /**
+     * Extract an archive while it is read from a stream<br>
+     * The stream is not closed and may not be read until its end.
+     *
+     * @param in The stream of the archive
+     * @param destination The directory where to extract the archive
+     * @throws IOException If an I/O error occurs
+     */
+    void extract(InputStream in, Path destination) throws IOException;
+
+    /**
+     * Get the number of files (including links) written by the extractions
+     *
+     * @return The number of files written
+     */
+    long getFilesWritten();
+
+    /**
+     * Get the number of bytes written by the extractions
+     *
+     * @return The number of bytes written
+     */
+    long getBytesWritten();
+
+    /**
+     * Get the number of files skipped by the entry filter of the extractions
+     *
+     * @return The number of files skipped
+     */
+    long getFilesFiltered();
+}
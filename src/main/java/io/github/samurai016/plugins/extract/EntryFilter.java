@@ -0,0 +1,214 @@
+/*
+ * Maven JRE Plugin
+ * Copyright (c) 2025 Nicolò Rebaioli
+ *
+ * This file is part of Maven JRE Plugin.
+ *
+ * Maven JRE Plugin is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Maven JRE Plugin is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Maven JRE Plugin.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.github.samurai016.plugins.extract;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Collection;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Filter of the archive entries to extract<br>
+ * Entries are matched against Ant-style glob patterns (<code>*</code>, <code>?</code> and <code>**</code>),
+ * using their path relative to the destination directory. A pattern matching a directory also matches everything below it.<br>
+ * An entry is extracted if it matches an include pattern (or there are none) and no exclude pattern.
+ * Filtered entries are skipped before being inflated or written.
+ *
+ * @author Nicolò Rebaioli
+ */
+public final class EntryFilter {
+    /**
+     * The filter which accepts every entry
+     */
+    public static final EntryFilter ALL = new EntryFilter(List.of(), List.of());
+
+    private final List<Pattern> includes;
+    private final List<Pattern> excludes;
+
+    private EntryFilter(List<Pattern> includes, List<Pattern> excludes) {
+        this.includes = includes;
+        this.excludes = excludes;
+    }
+
+    /**
+     * Create a filter from glob patterns
+     *
+     * @param includes The patterns of the entries to extract, may be null or empty to extract every entry
+     * @param excludes The patterns of the entries to skip, may be null
+     * @return The filter
+     */
+    public static EntryFilter of(Collection<String> includes, Collection<String> excludes) {
+        List<Pattern> include = compile(includes);
+        List<Pattern> exclude = compile(excludes);
+        return include.isEmpty() && exclude.isEmpty() ? ALL : new EntryFilter(include, exclude);
+    }
+
+    /**
+     * Check if an entry must be extracted
+     *
+     * @param name The path of the entry relative to the destination directory
+     * @return True if the entry is extracted, false if it is skipped
+     */
+    public boolean accepts(String name) {
+        if (this == ALL) {
+            return true;
+        }
+        String path = name.replace('\\', '/');
+        while (path.endsWith("/")) {
+            path = path.substring(0, path.length() - 1);
+        }
+        return (includes.isEmpty() || matches(includes, path)) && !matches(excludes, path);
+    }
+
+    /**
+     * Delete the files of a directory which the filter does not accept<br>
+     * Used for the images which are not extracted from an archive, e.g. linked by jlink.
+     * Directories left empty are deleted too, unless they are accepted.
+     *
+     * @param directory The directory, whose relative paths are matched
+     * @return The number of deleted files
+     * @throws IOException If an I/O error occurs
+     */
+    public int prune(Path directory) throws IOException {
+        if (this == ALL) {
+            return 0;
+        }
+        int[] deleted = {0};
+        Files.walkFileTree(directory, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                if (!accepts(directory.relativize(file).toString())) {
+                    Files.delete(file);
+                    deleted[0]++;
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult postVisitDirectory(Path dir, IOException exc) throws IOException {
+                if (exc != null) {
+                    throw exc;
+                }
+                if (!dir.equals(directory) && !accepts(directory.relativize(dir).toString())) {
+                    try (DirectoryStream<Path> entries = Files.newDirectoryStream(dir)) {
+                        if (!entries.iterator().hasNext()) {
+                            Files.delete(dir);
+                        }
+                    }
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        return deleted[0];
+    }
+
+    /**
+     * Check if the filter accepts every entry
+     *
+     * @return True if no pattern is configured, false otherwise
+     */
+    public boolean isEmpty() {
+        return this == ALL;
+    }
+
+    /**
+     * Check if a pattern matches a path or one of its parent directories
+     */
+    private static boolean matches(List<Pattern> patterns, String path) {
+        for (String current = path; !current.isEmpty(); current = parent(current)) {
+            for (Pattern pattern : patterns) {
+                if (pattern.matcher(current).matches()) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static String parent(String path) {
+        int index = path.lastIndexOf('/');
+        return index > 0 ? path.substring(0, index) : "";
+    }
+
+    private static List<Pattern> compile(Collection<String> globs) {
+        if (globs == null) {
+            return List.of();
+        }
+        return globs.stream()
+                .map(String::trim)
+                .filter(glob -> !glob.isEmpty())
+                .map(EntryFilter::toPattern)
+                .toList();
+    }
+
+    /**
+     * Convert a glob to a regular expression<br>
+     * <code>**</code> matches any number of directories, <code>*</code> and <code>?</code> never match a <code>/</code>.
+     *
+     * @param glob The glob
+     * @return The regular expression
+     */
+    static Pattern toPattern(String glob) {
+        String normalized = glob.replace('\\', '/');
+        while (normalized.startsWith("./")) {
+            normalized = normalized.substring(2);
+        }
+        while (normalized.startsWith("/")) {
+            normalized = normalized.substring(1);
+        }
+        while (normalized.endsWith("/")) {
+            normalized = normalized.substring(0, normalized.length() - 1);
+        }
+
+        StringBuilder regex = new StringBuilder();
+        for (int i = 0; i < normalized.length(); i++) {
+            char c = normalized.charAt(i);
+            if (c == '*' && normalized.startsWith("**", i)) {
+                boolean leadingSlash = i > 0 && normalized.charAt(i - 1) == '/';
+                boolean trailingSlash = normalized.startsWith("/", i + 2);
+                if (trailingSlash) {
+                    // "**/" matches zero or more directories
+                    regex.append("(?:[^/]*/)*");
+                    i += 2;
+                } else if (leadingSlash && i + 2 == normalized.length()) {
+                    // A trailing "/**" also matches the directory itself
+                    regex.setLength(regex.length() - 1);
+                    regex.append("(?:/.*)?");
+                    i += 1;
+                } else {
+                    regex.append(".*");
+                    i += 1;
+                }
+            } else if (c == '*') {
+                regex.append("[^/]*");
+            } else if (c == '?') {
+                regex.append("[^/]");
+            } else {
+                if ("\\.[]{}()+-^$|".indexOf(c) >= 0) {
+                    regex.append('\\');
+                }
+                regex.append(c);
+            }
+        }
+        return Pattern.compile(regex.toString());
+    }
+}
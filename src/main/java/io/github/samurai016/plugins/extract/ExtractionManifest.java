@@ -0,0 +1,251 @@
+/*
+ * Maven JRE Plugin
+ * Copyright (c) 2025 Nicolò Rebaioli
+ *
+ * This file is part of Maven JRE Plugin.
+ *
+ * Maven JRE Plugin is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Maven JRE Plugin is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Maven JRE Plugin.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.github.samurai016.plugins.extract;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.github.samurai016.plugins.Utils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+import java.util.stream.Stream;
+
+/**
+ * Manifest of an extracted JRE<br>
+ * Records the extracted release and the size, modification time and (optionally) SHA-256 of every file,
+ * so that a later build can tell whether the extracted tree is still up to date without extracting it again.<br>
+ * It is stored next to the extracted directory, e.g. <code>target/jre.jre-manifest.json</code> for <code>target/jre</code>.
+ *
+ * @author Nicolò Rebaioli
+ */
+@SuppressWarnings("unused")
+public class ExtractionManifest {
+    private static final String SUFFIX = ".jre-manifest.json";
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .enable(SerializationFeature.INDENT_OUTPUT)
+            .setSerializationInclusion(JsonInclude.Include.NON_NULL);
+
+    public String release_name;
+    public String checksum;
+    public String options;
+    public SortedMap<String, FileInfo> files = new TreeMap<>();
+
+    /**
+     * Get the path of the manifest of an extracted directory
+     *
+     * @param directory The extracted directory
+     * @return The path of the manifest
+     */
+    public static Path pathFor(Path directory) {
+        Path absolute = directory.toAbsolutePath().normalize();
+        return absolute.resolveSibling(absolute.getFileName() + SUFFIX);
+    }
+
+    /**
+     * Read a manifest
+     *
+     * @param path The path of the manifest
+     * @return The manifest, or null if it does not exist or cannot be read
+     */
+    public static ExtractionManifest read(Path path) {
+        if (!Files.isRegularFile(path)) {
+            return null;
+        }
+        try {
+            return MAPPER.readValue(path.toFile(), ExtractionManifest.class);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Create the manifest of an extracted directory
+     *
+     * @param directory The extracted directory
+     * @param releaseName The name of the extracted release
+     * @param checksum The checksum of the extracted archive
+     * @param options The extraction options which affect the extracted tree
+     * @param hashes If true, the SHA-256 of every file is computed (in parallel)
+     * @return The manifest
+     * @throws IOException If an I/O error occurs
+     */
+    public static ExtractionManifest create(Path directory, String releaseName, String checksum, String options, boolean hashes) throws IOException {
+        ExtractionManifest manifest = new ExtractionManifest();
+        manifest.release_name = releaseName;
+        manifest.checksum = checksum;
+        manifest.options = options;
+
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : paths.toList()) {
+                BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+                if (attributes.isDirectory()) {
+                    continue;
+                }
+                FileInfo info = new FileInfo();
+                if (attributes.isSymbolicLink()) {
+                    info.link = Files.readSymbolicLink(path).toString();
+                } else {
+                    info.size = attributes.size();
+                    info.mtime = attributes.lastModifiedTime().toMillis();
+                }
+                manifest.files.put(relativize(directory, path), info);
+            }
+        }
+
+        if (hashes) {
+            try {
+                manifest.files.entrySet().parallelStream()
+                        .filter(entry -> entry.getValue().link == null)
+                        .forEach(entry -> entry.getValue().sha256 = sha256(directory.resolve(entry.getKey())));
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        }
+        return manifest;
+    }
+
+    /**
+     * Write the manifest
+     *
+     * @param path The path of the manifest
+     * @throws IOException If an I/O error occurs
+     */
+    public void write(Path path) throws IOException {
+        MAPPER.writeValue(path.toFile(), this);
+    }
+
+    /**
+     * Check if the manifest describes the extraction of an archive with some options
+     *
+     * @param expectedChecksum The checksum of the archive
+     * @param expectedOptions The extraction options
+     * @return True if the archive and the options match, false otherwise
+     */
+    public boolean matches(String expectedChecksum, String expectedOptions) {
+        return expectedChecksum != null && !expectedChecksum.isEmpty()
+                && expectedChecksum.equalsIgnoreCase(checksum)
+                && Objects.equals(expectedOptions, options);
+    }
+
+    /**
+     * Check if an extracted directory still matches the manifest<br>
+     * Sizes and modification times are always compared. If requested and recorded, the SHA-256 of every file
+     * is compared as well, in parallel.
+     *
+     * @param directory The extracted directory
+     * @param hashes If true, the SHA-256 of the files is verified too
+     * @return True if every file of the manifest is unchanged, false otherwise
+     */
+    public boolean verify(Path directory, boolean hashes) {
+        if (files == null || files.isEmpty()) {
+            return false;
+        }
+
+        for (Map.Entry<String, FileInfo> entry : files.entrySet()) {
+            Path path = directory.resolve(entry.getKey());
+            FileInfo info = entry.getValue();
+            try {
+                BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+                if (info.link != null) {
+                    if (!attributes.isSymbolicLink() || !info.link.equals(Files.readSymbolicLink(path).toString())) {
+                        return false;
+                    }
+                } else if (!attributes.isRegularFile() || attributes.size() != info.size || attributes.lastModifiedTime().toMillis() != info.mtime) {
+                    return false;
+                }
+            } catch (IOException e) {
+                return false;
+            }
+        }
+
+        if (hashes) {
+            return files.entrySet().parallelStream()
+                    .filter(entry -> entry.getValue().link == null)
+                    .allMatch(entry -> {
+                        try {
+                            return entry.getValue().sha256 != null
+                                    && entry.getValue().sha256.equals(Utils.sha256(directory.resolve(entry.getKey())));
+                        } catch (IOException e) {
+                            return false;
+                        }
+                    });
+        }
+        return true;
+    }
+
+    /**
+     * Delete the files listed in the manifest, and the directories left empty
+     *
+     * @param directory The extracted directory
+     * @throws IOException If an I/O error occurs
+     */
+    public void clean(Path directory) throws IOException {
+        Set<Path> parents = new TreeSet<>(Comparator.reverseOrder());
+        for (String file : files.keySet()) {
+            Path path = directory.resolve(file).normalize();
+            if (!path.startsWith(directory.normalize())) {
+                continue;
+            }
+            Files.deleteIfExists(path);
+            for (Path parent = path.getParent(); parent != null && !parent.equals(directory.normalize()); parent = parent.getParent()) {
+                parents.add(parent);
+            }
+        }
+
+        // Deepest directories first
+        for (Path parent : parents) {
+            try (Stream<Path> children = Files.list(parent)) {
+                if (children.findAny().isEmpty()) {
+                    Files.delete(parent);
+                }
+            } catch (IOException ignored) {
+                // The directory does not exist or is not empty
+            }
+        }
+    }
+
+    private static String relativize(Path directory, Path path) {
+        return directory.relativize(path).toString().replace('\\', '/');
+    }
+
+    private static String sha256(Path path) {
+        try {
+            return Utils.sha256(path);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Information about an extracted file
+     */
+    public static class FileInfo {
+        public long size;
+        public long mtime;
+        public String sha256;
+        public String link;
+    }
+}
@@ -0,0 +1,214 @@
+/*
+ * Maven JRE Plugin
+ * Copyright (c) 2025 Nicolò Rebaioli
+ *
+ * This file is part of Maven JRE Plugin.
+ *
+ * Maven JRE Plugin is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Maven JRE Plugin is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Maven JRE Plugin.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.github.samurai016.plugins.extract;
+
+import io.github.samurai016.plugins.Utils;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Store of extracted JREs shared by several extraction directories<br>
+ * Each distinct archive (and set of extraction options) is extracted once as
+ * <code>&lt;root&gt;/&lt;checksum&gt;-&lt;SHA-256 of the options&gt;</code>, then the extraction directories are made of hard links to it.
+ * Files are copied when hard links are not supported, e.g. when the store and the directory are on different devices.<br>
+ * Archives are extracted to a staging directory which is renamed to the entry at once,
+ * so an entry always holds a complete extraction, even when several builds extract the same archive concurrently.
+ *
+ * @author Nicolò Rebaioli
+ */
+public class ExtractionStore {
+    private static final Pattern ENTRY_PATTERN = Pattern.compile("^([0-9a-f]{64})-[0-9a-f]{64}$");
+
+    private final Path root;
+
+    /**
+     * Create a new store
+     *
+     * @param root The root directory of the store
+     */
+    public ExtractionStore(Path root) {
+        this.root = root.toAbsolutePath().normalize();
+    }
+
+    /**
+     * Get the entry of an extraction
+     *
+     * @param checksum The SHA-256 checksum of the archive
+     * @param options The extraction options
+     * @return The directory of the entry
+     */
+    public Path entry(String checksum, String options) {
+        return root.resolve(checksum.toLowerCase() + "-" + Utils.sha256(options));
+    }
+
+    /**
+     * Evict the stale entries of the store<br>
+     * An entry is stale when its archive is no longer kept, e.g. once evicted from the archive cache.
+     * Entries of a previous layout of the store are evicted too.
+     * Staging directories are kept, since they may belong to a running build.
+     *
+     * @param keep Check if the archive of a checksum is still kept
+     * @return The number of bytes freed
+     * @throws IOException If an I/O error occurs
+     */
+    public long prune(Predicate<String> keep) throws IOException {
+        if (!Files.isDirectory(root)) {
+            return 0;
+        }
+
+        long freed = 0;
+        List<Path> directories;
+        try (Stream<Path> list = Files.list(root)) {
+            directories = list.filter(Files::isDirectory).toList();
+        }
+        for (Path directory : directories) {
+            String name = directory.getFileName().toString();
+            Matcher matcher = ENTRY_PATTERN.matcher(name);
+            if (name.startsWith(".staging-") || matcher.matches() && keep.test(matcher.group(1))) {
+                continue;
+            }
+            freed += Utils.directorySize(directory);
+            Utils.deleteRecursively(directory);
+        }
+        return freed;
+    }
+
+    /**
+     * Check if an entry has been extracted
+     *
+     * @param entry The directory of the entry
+     * @return True if the entry exists, false otherwise
+     */
+    public boolean contains(Path entry) {
+        return Files.isDirectory(entry);
+    }
+
+    /**
+     * Create a staging directory, where an archive is extracted before it is committed to the store
+     *
+     * @return The staging directory
+     * @throws IOException If an I/O error occurs
+     */
+    public Path newStaging() throws IOException {
+        Files.createDirectories(root);
+        return Files.createTempDirectory(root, ".staging-");
+    }
+
+    /**
+     * Commit an extraction to the store<br>
+     * The staging directory is renamed to the entry. If the entry was committed in the meantime
+     * by a concurrent build, the staging directory is discarded.
+     *
+     * @param staging The staging directory
+     * @param entry The directory of the entry
+     * @throws IOException If an I/O error occurs
+     */
+    public void commit(Path staging, Path entry) throws IOException {
+        try {
+            Files.move(staging, entry, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            if (!contains(entry)) {
+                throw e;
+            }
+        } finally {
+            Utils.deleteRecursively(staging);
+        }
+    }
+
+    /**
+     * Discard a staging directory, after a failed extraction
+     *
+     * @param staging The staging directory
+     */
+    public void discard(Path staging) {
+        try {
+            Utils.deleteRecursively(staging);
+        } catch (IOException ignored) {
+            // The staging directory is only garbage, it does not affect the store
+        }
+    }
+
+    /**
+     * Materialize an entry in a directory<br>
+     * Every file is hard linked to the one in the store, or copied if hard links are not supported.
+     * Symbolic links are recreated. Existing files are replaced.
+     *
+     * @param entry The directory of the entry
+     * @param destination The directory to materialize
+     * @return The number of linked and copied files
+     * @throws IOException If an I/O error occurs
+     */
+    public Links link(Path entry, Path destination) throws IOException {
+        long[] counts = new long[2];
+        Files.walkFileTree(entry, new SimpleFileVisitor<>() {
+            private boolean hardLinks = true;
+
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                Files.createDirectories(resolve(dir));
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                Path target = resolve(file);
+                Files.deleteIfExists(target);
+                if (attrs.isSymbolicLink()) {
+                    Files.createSymbolicLink(target, Files.readSymbolicLink(file));
+                    return FileVisitResult.CONTINUE;
+                }
+                if (hardLinks) {
+                    try {
+                        Files.createLink(target, file);
+                        counts[0]++;
+                        return FileVisitResult.CONTINUE;
+                    } catch (IOException | UnsupportedOperationException e) {
+                        // Across devices (or on file systems without hard links) every link would fail
+                        hardLinks = false;
+                    }
+                }
+                Files.copy(file, target, StandardCopyOption.COPY_ATTRIBUTES);
+                counts[1]++;
+                return FileVisitResult.CONTINUE;
+            }
+
+            private Path resolve(Path path) {
+                return destination.resolve(entry.relativize(path).toString());
+            }
+        });
+        return new Links(counts[0], counts[1]);
+    }
+
+    /**
+     * The result of the materialization of an entry
+     *
+     * @param linked The number of hard linked files
+     * @param copied The number of copied files
+     */
+    public record Links(long linked, long copied) {
+    }
+}
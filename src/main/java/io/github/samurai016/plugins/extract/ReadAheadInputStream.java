@@ -0,0 +1,125 @@
+/*
+ * Maven JRE Plugin
+ * Copyright (c) 2025 Nicolò Rebaioli
+ *
+ * This file is part of Maven JRE Plugin.
+ *
+ * Maven JRE Plugin is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Maven JRE Plugin is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Maven JRE Plugin.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.github.samurai016.plugins.extract;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Stream which reads its source on a dedicated thread<br>
+ * Used to inflate a gzip stream while the caller parses and writes the inflated data:
+ * a gzip stream cannot be split across threads, but its inflation can overlap with the rest of the extraction.
+ *
+ * @author Nicolò Rebaioli
+ */
+class ReadAheadInputStream extends InputStream {
+    private static final int CHUNK_SIZE = 128 * 1024;
+    private static final int QUEUE_CAPACITY = 32;
+    private static final byte[] EOF = new byte[0];
+
+    private final BlockingQueue<byte[]> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final Thread reader;
+    private volatile IOException failure;
+    private byte[] current = null;
+    private int position = 0;
+    private boolean finished = false;
+
+    /**
+     * Start reading a source in the background
+     *
+     * @param source The source to read, closed by this stream
+     */
+    ReadAheadInputStream(InputStream source) {
+        this.reader = Thread.ofPlatform().daemon().name("jre-inflater").start(() -> {
+            try (source) {
+                while (true) {
+                    byte[] chunk = source.readNBytes(CHUNK_SIZE);
+                    if (chunk.length == 0) {
+                        break;
+                    }
+                    queue.put(chunk);
+                }
+            } catch (IOException e) {
+                failure = e;
+            } catch (InterruptedException e) {
+                return;
+            }
+            try {
+                queue.put(EOF);
+            } catch (InterruptedException ignored) {
+                // The stream has been closed
+            }
+        });
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] b = new byte[1];
+        int read = read(b, 0, 1);
+        return read == -1 ? -1 : b[0] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        if (!fill()) {
+            return -1;
+        }
+        int read = Math.min(len, current.length - position);
+        System.arraycopy(current, position, b, off, read);
+        position += read;
+        return read;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.interrupt();
+        try {
+            reader.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+        }
+    }
+
+    private boolean fill() throws IOException {
+        while (!finished && (current == null || position == current.length)) {
+            try {
+                current = queue.take();
+                position = 0;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException();
+            }
+            if (current == EOF) {
+                finished = true;
+            }
+        }
+        if (finished && failure != null) {
+            throw failure;
+        }
+        return !finished;
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * Maven JRE Plugin
+ * Copyright (c) 2025 Nicolò Rebaioli
+ *
+ * This file is part of Maven JRE Plugin.
+ *
+ * Maven JRE Plugin is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Maven JRE Plugin is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Maven JRE Plugin.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.github.samurai016.plugins.extract;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Entry name rewriter of the <code>movetoroot</code> option<br>
+ * When every entry of the archive is inside a single first-level folder, that folder is stripped from the names,
+ * so that each file is written once, straight to its final location.<br>
+ * When the entries are read in order (streamed archives) the folder is inferred from the first entry.
+ * If a later entry turns out to be outside of it, the files already written are relocated under the folder
+ * and the remaining names are left untouched.
+ *
+ * @author Nicolò Rebaioli
+ */
+class RootFolderStripper {
+    private final Path destination;
+    private String root;
+    private boolean decided;
+    private final Set<String> written = new LinkedHashSet<>();
+
+    /**
+     * Create a stripper which infers the first-level folder from the first entry
+     *
+     * @param destination The destination directory
+     * @param enabled If false, the names are never rewritten
+     */
+    RootFolderStripper(Path destination, boolean enabled) {
+        this.destination = destination;
+        this.decided = !enabled;
+    }
+
+    /**
+     * Create a stripper from the whole list of entry names, e.g. read from the central directory of a zip file
+     *
+     * @param destination The destination directory
+     * @param enabled If false, the names are never rewritten
+     * @param names The entry names, the directory names ending with <code>/</code>
+     * @return The stripper
+     */
+    static RootFolderStripper forEntries(Path destination, boolean enabled, Collection<String> names) {
+        RootFolderStripper stripper = new RootFolderStripper(destination, false);
+        if (enabled) {
+            Set<String> folders = new HashSet<>();
+            for (String name : names) {
+                String normalized = name.replace('\\', '/');
+                folders.add(firstSegment(normalized, normalized.endsWith("/")));
+            }
+            if (folders.size() == 1 && !folders.contains(null)) {
+                stripper.root = folders.iterator().next();
+            }
+        }
+        return stripper;
+    }
+
+    /**
+     * Rewrite the name of an entry
+     *
+     * @param name The name of the entry in the archive
+     * @param directory True if the entry is a directory
+     * @return The name relative to the destination, or null if the entry is the stripped folder itself
+     * @throws IOException If the files already written cannot be relocated
+     */
+    String rewrite(String name, boolean directory) throws IOException {
+        String normalized = name.replace('\\', '/');
+        String folder = firstSegment(normalized, directory);
+        if (!decided) {
+            decided = true;
+            root = folder;
+        }
+        if (root == null) {
+            return normalized;
+        }
+        if (!root.equals(folder)) {
+            relocate();
+            return normalized;
+        }
+
+        String stripped = normalized.length() > root.length() + 1 ? normalized.substring(root.length() + 1) : "";
+        if (stripped.isEmpty() || stripped.equals("/")) {
+            return null;
+        }
+        written.add(firstSegment(stripped, true));
+        return stripped;
+    }
+
+    /**
+     * Rewrite the target of a hard link, which is an entry name as well
+     *
+     * @param link The target of the link in the archive
+     * @return The target relative to the destination
+     */
+    String rewriteLink(String link) {
+        String normalized = link.replace('\\', '/');
+        if (root != null && normalized.startsWith(root + "/")) {
+            return normalized.substring(root.length() + 1);
+        }
+        return normalized;
+    }
+
+    /**
+     * Move the files written so far under the first-level folder, and stop stripping it
+     */
+    private void relocate() throws IOException {
+        String folder = root;
+        root = null;
+        if (written.isEmpty()) {
+            return;
+        }
+
+        // A temporary directory, since the folder may have the same name as one of its children
+        Path temporary = Files.createTempDirectory(destination, folder);
+        for (String child : written) {
+            Path path = destination.resolve(child);
+            if (Files.exists(path, LinkOption.NOFOLLOW_LINKS)) {
+                AbstractExtractor.move(path, temporary.resolve(child));
+            }
+        }
+        written.clear();
+        AbstractExtractor.move(temporary, destination.resolve(folder));
+    }
+
+    private static String firstSegment(String name, boolean directory) {
+        int index = name.indexOf('/');
+        if (index > 0) {
+            return name.substring(0, index);
+        }
+        return directory && index != 0 && !name.isEmpty() ? name : null;
+    }
+}
@@ -0,0 +1,377 @@
+/*
+ * Maven JRE Plugin
+ * Copyright (c) 2025 Nicolò Rebaioli
+ *
+ * This file is part of Maven JRE Plugin.
+ *
+ * Maven JRE Plugin is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Maven JRE Plugin is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Maven JRE Plugin.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.github.samurai016.plugins.extract;
+
+import java.io.BufferedInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.FileTime;
+import java.nio.file.attribute.PosixFilePermission;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Streaming tar.gz archive extractor<br>
+ * Supports ustar, GNU long names and pax extended headers. File permissions, modification times,
+ * symbolic links and hard links are preserved.
+ *
+ * @author Nicolò Rebaioli
+ */
+public class TarGzExtractor extends AbstractExtractor {
+    private static final int BLOCK_SIZE = 512;
+
+    private final boolean parallelInflate;
+
+    /**
+     * @param moveToRoot If true, the first-level folder of the archive is stripped from the entry names
+     * @param parallelInflate If true, the gzip stream is inflated on a dedicated thread, while the caller parses and writes the entries
+     */
+    public TarGzExtractor(boolean moveToRoot, boolean parallelInflate) {
+        this(moveToRoot, parallelInflate, EntryFilter.ALL);
+    }
+
+    /**
+     * @param moveToRoot If true, the first-level folder of the archive is stripped from the entry names
+     * @param parallelInflate If true, the gzip stream is inflated on a dedicated thread, while the caller parses and writes the entries
+     * @param filter The filter of the entries to extract, the data of the skipped entries is never written
+     */
+    public TarGzExtractor(boolean moveToRoot, boolean parallelInflate, EntryFilter filter) {
+        super(moveToRoot, filter);
+        this.parallelInflate = parallelInflate;
+    }
+
+    @Override
+    public void extract(Path archive, Path destination) throws IOException {
+        try (InputStream in = Files.newInputStream(archive)) {
+            extract(in, destination);
+        }
+    }
+
+    @Override
+    public void extract(InputStream in, Path destination) throws IOException {
+        Files.createDirectories(destination);
+
+        InputStream gzip = new GZIPInputStream(in, 64 * 1024);
+        try (InputStream tar = parallelInflate ? new ReadAheadInputStream(gzip) : new BufferedInputStream(gzip, 64 * 1024)) {
+            extractTar(tar, destination);
+
+            // Read the end of the archive, so that the whole gzip stream is consumed
+            tar.transferTo(OutputStream.nullOutputStream());
+        }
+    }
+
+    private void extractTar(InputStream tar, Path destination) throws IOException {
+        boolean posix = FileSystems.getDefault().supportedFileAttributeViews().contains("posix");
+        RootFolderStripper stripper = new RootFolderStripper(destination, moveToRoot);
+
+        Map<String, String> pax = new HashMap<>();
+        String longName = null;
+        String longLink = null;
+        byte[] header = new byte[BLOCK_SIZE];
+        while (true) {
+            if (!readBlock(tar, header)) {
+                throw new EOFException("Unexpected end of tar archive");
+            }
+            if (isZeroBlock(header)) {
+                break;
+            }
+            verifyHeaderChecksum(header);
+
+            char type = (char) header[156];
+            long headerSize = parseNumber(header, 124, 12);
+
+            // Metadata entries apply to the next entry
+            if (type == 'L' || type == 'K' || type == 'x') {
+                byte[] data = readData(tar, headerSize);
+                if (type == 'L') {
+                    longName = cString(data, 0, data.length);
+                } else if (type == 'K') {
+                    longLink = cString(data, 0, data.length);
+                } else {
+                    pax.putAll(parsePax(data));
+                }
+                continue;
+            }
+            if (type == 'g') {
+                skipData(tar, headerSize);
+                continue;
+            }
+
+            long size = pax.containsKey("size") ? Long.parseLong(pax.get("size")) : headerSize;
+            String name = pax.getOrDefault("path", longName != null ? longName : entryName(header));
+            String link = pax.getOrDefault("linkpath", longLink != null ? longLink : cString(header, 157, 100));
+            long mtime = pax.containsKey("mtime") ? (long) Double.parseDouble(pax.get("mtime")) : parseNumber(header, 136, 12);
+            int mode = (int) parseNumber(header, 100, 8);
+            pax.clear();
+            longName = null;
+            longLink = null;
+
+            if (name.startsWith("./")) {
+                name = name.substring(2);
+            }
+            if (name.isEmpty() || name.equals(".") || name.equals("./")) {
+                skipData(tar, size);
+                continue;
+            }
+            name = stripper.rewrite(name, type == '5');
+            if (name == null || !accepts(name, type == '5')) {
+                skipData(tar, size);
+                continue;
+            }
+
+            Path path = resolveEntry(destination, name);
+            switch (type) {
+                case '5' -> {
+                    Files.createDirectories(path);
+                    skipData(tar, size);
+                }
+                case '2' -> {
+                    Files.createDirectories(path.getParent());
+                    createSymbolicLink(destination, path, link);
+                    written(0);
+                    skipData(tar, size);
+                }
+                case '1' -> {
+                    String targetName = stripper.rewriteLink(link.startsWith("./") ? link.substring(2) : link);
+                    if (!filter.accepts(targetName)) {
+                        // The data of a hard link belongs to its target, which was skipped
+                        skipData(tar, size);
+                        continue;
+                    }
+                    Files.createDirectories(path.getParent());
+                    Path target = resolveEntry(destination, targetName);
+                    Files.deleteIfExists(path);
+                    try {
+                        Files.createLink(path, target);
+                    } catch (UnsupportedOperationException | IOException e) {
+                        Files.copy(target, path, StandardCopyOption.REPLACE_EXISTING);
+                    }
+                    written(0);
+                    skipData(tar, size);
+                }
+                case '0', '\0', '7' -> {
+                    Files.createDirectories(path.getParent());
+                    Files.deleteIfExists(path);
+                    try (InputStream data = new BoundedInputStream(tar, size)) {
+                        written(Files.copy(data, path));
+                    }
+                    skipPadding(tar, size);
+                    Files.setLastModifiedTime(path, FileTime.from(mtime, TimeUnit.SECONDS));
+                    if (posix) {
+                        Files.setPosixFilePermissions(path, permissions(mode));
+                    }
+                }
+                default -> skipData(tar, size); // Devices and FIFOs are not part of a JRE
+            }
+        }
+    }
+
+    /**
+     * Create a symbolic link, refusing links which point outside the destination.<br>
+     * If the file system does not support symbolic links, the target is copied instead.
+     */
+    private static void createSymbolicLink(Path destination, Path path, String link) throws IOException {
+        Path root = destination.toAbsolutePath().normalize();
+        Path target = path.getParent().resolve(link).normalize();
+        if (!target.startsWith(root)) {
+            throw new IOException("Symbolic link outside of the destination directory: " + path + " -> " + link);
+        }
+
+        Files.deleteIfExists(path);
+        try {
+            Files.createSymbolicLink(path, Path.of(link));
+        } catch (UnsupportedOperationException | IOException e) {
+            if (Files.isRegularFile(target)) {
+                Files.copy(target, path);
+            }
+        }
+    }
+
+    private static String entryName(byte[] header) {
+        String name = cString(header, 0, 100);
+        String magic = cString(header, 257, 6);
+        if (magic.startsWith("ustar")) {
+            String prefix = cString(header, 345, 155);
+            if (!prefix.isEmpty()) {
+                return prefix + "/" + name;
+            }
+        }
+        return name;
+    }
+
+    private static Map<String, String> parsePax(byte[] data) {
+        // Records have the form "<length> <key>=<value>\n"
+        Map<String, String> result = new HashMap<>();
+        int position = 0;
+        while (position < data.length) {
+            int space = position;
+            while (space < data.length && data[space] != ' ') {
+                space++;
+            }
+            if (space >= data.length) {
+                break;
+            }
+            int length = Integer.parseInt(new String(data, position, space - position, StandardCharsets.UTF_8).trim());
+            if (length <= 0 || position + length > data.length) {
+                break;
+            }
+            String record = new String(data, space + 1, position + length - space - 2, StandardCharsets.UTF_8);
+            int equals = record.indexOf('=');
+            if (equals > 0) {
+                result.put(record.substring(0, equals), record.substring(equals + 1));
+            }
+            position += length;
+        }
+        return result;
+    }
+
+    private static void verifyHeaderChecksum(byte[] header) throws IOException {
+        long expected = parseNumber(header, 148, 8);
+        long actual = 0;
+        for (int i = 0; i < BLOCK_SIZE; i++) {
+            actual += (i >= 148 && i < 156) ? ' ' : (header[i] & 0xff);
+        }
+        if (expected != actual) {
+            throw new IOException("Corrupted tar header");
+        }
+    }
+
+    private static long parseNumber(byte[] header, int offset, int length) {
+        // GNU base-256 encoding, used for large values
+        if ((header[offset] & 0x80) != 0) {
+            long value = header[offset] & 0x7f;
+            for (int i = 1; i < length; i++) {
+                value = (value << 8) | (header[offset + i] & 0xff);
+            }
+            return value;
+        }
+
+        String octal = cString(header, offset, length).trim();
+        return octal.isEmpty() ? 0 : Long.parseLong(octal, 8);
+    }
+
+    private static String cString(byte[] data, int offset, int length) {
+        int end = offset;
+        while (end < offset + length && data[end] != 0) {
+            end++;
+        }
+        return new String(data, offset, end - offset, StandardCharsets.UTF_8);
+    }
+
+    private static Set<PosixFilePermission> permissions(int mode) {
+        Set<PosixFilePermission> permissions = EnumSet.noneOf(PosixFilePermission.class);
+        PosixFilePermission[] values = {
+                PosixFilePermission.OTHERS_EXECUTE, PosixFilePermission.OTHERS_WRITE, PosixFilePermission.OTHERS_READ,
+                PosixFilePermission.GROUP_EXECUTE, PosixFilePermission.GROUP_WRITE, PosixFilePermission.GROUP_READ,
+                PosixFilePermission.OWNER_EXECUTE, PosixFilePermission.OWNER_WRITE, PosixFilePermission.OWNER_READ
+        };
+        for (int i = 0; i < values.length; i++) {
+            if ((mode & (1 << i)) != 0) {
+                permissions.add(values[i]);
+            }
+        }
+        return permissions;
+    }
+
+    private static boolean isZeroBlock(byte[] block) {
+        for (byte b : block) {
+            if (b != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean readBlock(InputStream in, byte[] block) throws IOException {
+        return in.readNBytes(block, 0, BLOCK_SIZE) == BLOCK_SIZE;
+    }
+
+    private static byte[] readData(InputStream in, long size) throws IOException {
+        byte[] data = in.readNBytes((int) size);
+        if (data.length != size) {
+            throw new EOFException("Unexpected end of tar archive");
+        }
+        skipPadding(in, size);
+        return data;
+    }
+
+    private static void skipData(InputStream in, long size) throws IOException {
+        in.skipNBytes(size);
+        skipPadding(in, size);
+    }
+
+    private static void skipPadding(InputStream in, long size) throws IOException {
+        long remainder = size % BLOCK_SIZE;
+        if (remainder != 0) {
+            in.skipNBytes(BLOCK_SIZE - remainder);
+        }
+    }
+
+    /**
+     * Stream over the data of a single tar entry
+     */
+    private static class BoundedInputStream extends InputStream {
+        private final InputStream in;
+        private long remaining;
+
+        BoundedInputStream(InputStream in, long size) {
+            this.in = in;
+            this.remaining = size;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int b = in.read();
+            if (b == -1) {
+                throw new EOFException("Unexpected end of tar archive");
+            }
+            remaining--;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int read = in.read(b, off, (int) Math.min(len, remaining));
+            if (read == -1) {
+                throw new EOFException("Unexpected end of tar archive");
+            }
+            remaining -= read;
+            return read;
+        }
+
+        @Override
+        public void close() throws IOException {
+            // Skip what the caller did not read, without closing the archive
+            in.skipNBytes(remaining);
+            remaining = 0;
+        }
+    }
+}
@@ -0,0 +1,207 @@
+/*
+ * Maven JRE Plugin
+ * Copyright (c) 2025 Nicolò Rebaioli
+ *
+ * This file is part of Maven JRE Plugin.
+ *
+ * Maven JRE Plugin is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Maven JRE Plugin is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Maven JRE Plugin.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.github.samurai016.plugins.extract;
+
+import net.lingala.zip4j.io.inputstream.ZipInputStream;
+import net.lingala.zip4j.model.LocalFileHeader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Zip archive extractor<br>
+ * Archive files are extracted in parallel: the central directory is read once and the entries are inflated
+ * across a bounded pool of threads, each writing its entries through its own channel.
+ * Small archives are extracted sequentially.
+ *
+ * @author Nicolò Rebaioli
+ */
+public class ZipExtractor extends AbstractExtractor {
+    private static final int MIN_PARALLEL_ENTRIES = 64;
+    private static final long MIN_PARALLEL_SIZE = 8 * 1024 * 1024; // 8MB
+
+    private final int threads;
+
+    /**
+     * @param moveToRoot If true, the first-level folder of the archive is stripped from the entry names
+     * @param threads The maximum number of threads used to extract an archive file (0 means one per available processor)
+     */
+    public ZipExtractor(boolean moveToRoot, int threads) {
+        this(moveToRoot, threads, EntryFilter.ALL);
+    }
+
+    /**
+     * @param moveToRoot If true, the first-level folder of the archive is stripped from the entry names
+     * @param threads The maximum number of threads used to extract an archive file (0 means one per available processor)
+     * @param filter The filter of the entries to extract, the skipped entries are never inflated
+     */
+    public ZipExtractor(boolean moveToRoot, int threads, EntryFilter filter) {
+        super(moveToRoot, filter);
+        this.threads = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+    }
+
+    @Override
+    public void extract(Path file, Path destination) throws IOException {
+        Files.createDirectories(destination);
+
+        // java.util.zip.ZipFile can be read concurrently, only the reads of the compressed bytes are serialized
+        try (ZipFile archive = new ZipFile(file.toFile())) {
+            // The central directory lists every entry, so the first-level folder is known before writing anything
+            List<String> names = archive.stream().map(ZipEntry::getName).toList();
+            RootFolderStripper stripper = RootFolderStripper.forEntries(destination, moveToRoot, names);
+            Set<Path> directories = new HashSet<>();
+            List<ZipEntry> files = new ArrayList<>();
+            List<Path> paths = new ArrayList<>();
+            long totalSize = 0;
+
+            // Read the central directory once
+            Enumeration<? extends ZipEntry> entries = archive.entries();
+            while (entries.hasMoreElements()) {
+                ZipEntry entry = entries.nextElement();
+                String name = stripper.rewrite(entry.getName(), entry.isDirectory());
+                if (name == null || !accepts(name, entry.isDirectory())) {
+                    continue;
+                }
+                Path path = resolveEntry(destination, name);
+
+                if (entry.isDirectory()) {
+                    directories.add(path);
+                } else {
+                    directories.add(path.getParent());
+                    files.add(entry);
+                    paths.add(path);
+                    totalSize += Math.max(entry.getSize(), 0);
+                }
+            }
+
+            // Create the directories up front, so that the workers only write files
+            for (Path directory : directories) {
+                Files.createDirectories(directory);
+            }
+
+            if (threads > 1 && files.size() >= MIN_PARALLEL_ENTRIES && totalSize >= MIN_PARALLEL_SIZE) {
+                extractParallel(archive, files, paths);
+            } else {
+                for (int i = 0; i < files.size(); i++) {
+                    extractEntry(archive, files.get(i), paths.get(i));
+                }
+            }
+        }
+    }
+
+    /**
+     * Extract the entries across a bounded pool of threads, the largest entries first.
+     */
+    private void extractParallel(ZipFile archive, List<ZipEntry> files, List<Path> paths) throws IOException {
+        List<Integer> order = new ArrayList<>();
+        for (int i = 0; i < files.size(); i++) {
+            order.add(i);
+        }
+        order.sort(Comparator.comparingLong((Integer i) -> files.get(i).getSize()).reversed());
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(Math.min(threads, files.size()))) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i : order) {
+                futures.add(executor.submit(() -> {
+                    extractEntry(archive, files.get(i), paths.get(i));
+                    return null;
+                }));
+            }
+
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    futures.forEach(f -> f.cancel(true));
+                    if (e.getCause() instanceof IOException ioException) {
+                        throw ioException;
+                    }
+                    throw new IOException(e.getCause());
+                } catch (InterruptedException e) {
+                    futures.forEach(f -> f.cancel(true));
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException();
+                }
+            }
+        }
+    }
+
+    private void extractEntry(ZipFile archive, ZipEntry entry, Path path) throws IOException {
+        try (InputStream in = archive.getInputStream(entry);
+             FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            byte[] buffer = new byte[64 * 1024];
+            long size = 0;
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                ByteBuffer byteBuffer = ByteBuffer.wrap(buffer, 0, read);
+                while (byteBuffer.hasRemaining()) {
+                    channel.write(byteBuffer);
+                }
+                size += read;
+            }
+            written(size);
+        }
+        if (entry.getLastModifiedTime() != null) {
+            Files.setLastModifiedTime(path, entry.getLastModifiedTime());
+        }
+    }
+
+    @Override
+    public void extract(InputStream in, Path destination) throws IOException {
+        Files.createDirectories(destination);
+
+        // The local headers are read as the entries arrive, the central directory at the end is never needed
+        RootFolderStripper stripper = new RootFolderStripper(destination, moveToRoot);
+        ZipInputStream zip = new ZipInputStream(in);
+        LocalFileHeader header;
+        while ((header = zip.getNextEntry()) != null) {
+            String name = stripper.rewrite(header.getFileName(), header.isDirectory());
+            if (name == null || !accepts(name, header.isDirectory())) {
+                continue;
+            }
+            Path path = resolveEntry(destination, name);
+
+            if (header.isDirectory()) {
+                Files.createDirectories(path);
+                continue;
+            }
+            Files.createDirectories(path.getParent());
+            written(Files.copy(zip, path, StandardCopyOption.REPLACE_EXISTING));
+            if (header.getLastModifiedTime() > 0) {
+                Files.setLastModifiedTime(path, FileTime.fromMillis(header.getLastModifiedTimeEpoch()));
+            }
+        }
+    }
+}
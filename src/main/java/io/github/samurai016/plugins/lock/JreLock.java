@@ -0,0 +1,227 @@
+/*
+ * Maven JRE Plugin
+ * Copyright (c) 2025 Nicolò Rebaioli
+ *
+ * This file is part of Maven JRE Plugin.
+ *
+ * Maven JRE Plugin is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Maven JRE Plugin is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Maven JRE Plugin.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.github.samurai016.plugins.lock;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.github.samurai016.plugins.adoptium.models.*;
+import io.github.samurai016.plugins.adoptium.models.Package;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Date;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Lock file of the resolved releases<br>
+ * Pins the release of every target (release name, download link, size, checksum and the other fields of the release), so that the builds
+ * go straight to the cache or the download without asking the Adoptium API which release is the latest,
+ * and keep bundling the same release until the lock is refreshed.<br>
+ * The entries are keyed by feature version, JVM implementation, vendor and target, e.g. <code>21/hotspot/eclipse/linux/x64/jre</code>,
+ * so that changing any of them resolves a new release.
+ *
+ * @author Nicolò Rebaioli
+ */
+@SuppressWarnings("unused")
+public class JreLock {
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .enable(SerializationFeature.INDENT_OUTPUT)
+            .enable(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS)
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+            .setSerializationInclusion(JsonInclude.Include.NON_NULL)
+            .addMixIn(Installer.class, VolatileFields.class);
+
+    /**
+     * The variables of the path templates which are not pinned, because they change at every refresh
+     */
+    public static final Set<String> UNPINNED_VARIABLES = Set.of(
+            "binary.download_count",
+            "binary.package.download_count",
+            "binary.installer.download_count"
+    );
+
+    public SortedMap<String, Entry> releases = new TreeMap<>();
+
+    /**
+     * Read a lock file
+     *
+     * @param path The path of the lock file
+     * @return The lock, or an empty lock if the file does not exist
+     * @throws IOException If the file cannot be read or parsed
+     */
+    public static JreLock read(Path path) throws IOException {
+        if (!Files.isRegularFile(path)) {
+            return new JreLock();
+        }
+        try {
+            return MAPPER.readValue(path.toFile(), JreLock.class);
+        } catch (IOException e) {
+            throw new IOException("Invalid lock file " + path + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Write the lock file, replacing it atomically
+     *
+     * @param path The path of the lock file
+     * @throws IOException If an I/O error occurs
+     */
+    public void write(Path path) throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        MAPPER.writeValue(temporary.toFile(), this);
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Get the key of a release in the lock file
+     *
+     * @param featureVersion The feature version
+     * @param jvmImpl The JVM implementation
+     * @param vendor The vendor
+     * @param os The operating system
+     * @param architecture The architecture
+     * @param imageType The image type
+     * @return The key
+     */
+    public static String key(int featureVersion, JVMImpl jvmImpl, Vendor vendor, OperatingSystem os, Architecture architecture, ImageType imageType) {
+        return featureVersion + "/" + jvmImpl.getJsonValue() + "/" + vendor.getJsonValue() + "/"
+                + os.getJsonValue() + "/" + architecture.getJsonValue() + "/" + imageType.getJsonValue();
+    }
+
+    /**
+     * Get the pinned release of a key
+     *
+     * @param key The key of the release
+     * @return The release, or null if the key is not locked
+     */
+    public Release get(String key) {
+        Entry entry = releases.get(key);
+        return entry != null ? entry.toRelease() : null;
+    }
+
+    /**
+     * Pin a release
+     *
+     * @param key The key of the release
+     * @param release The release
+     */
+    public void put(String key, Release release) {
+        releases.put(key, Entry.of(release));
+    }
+
+    /**
+     * A pinned release<br>
+     * Every field which can be rendered in a path template is kept, except the volatile ones (i.e. download counts)
+     * which would change the lock file at every refresh.
+     */
+    public static class Entry {
+        public String release_name;
+        public String release_link;
+        public String vendor;
+        public String jvm_impl;
+        public String os;
+        public String architecture;
+        public String image_type;
+        public String heap_size;
+        public String project;
+        public String scm_ref;
+        public String name;
+        public String link;
+        public int size;
+        public String checksum;
+        public String checksum_link;
+        public String metadata_link;
+        public String signature_link;
+        public Date updated_at;
+        public Version version;
+        public Installer installer;
+
+        static Entry of(Release release) {
+            Entry entry = new Entry();
+            entry.release_name = release.release_name;
+            entry.release_link = release.release_link;
+            entry.vendor = release.vendor;
+            entry.jvm_impl = release.binary.jvm_impl;
+            entry.os = release.binary.os;
+            entry.architecture = release.binary.architecture;
+            entry.image_type = release.binary.image_type;
+            entry.heap_size = release.binary.heap_size;
+            entry.project = release.binary.project;
+            entry.scm_ref = release.binary.scm_ref;
+            entry.name = release.binary.pkg.name;
+            entry.link = release.binary.pkg.link;
+            entry.size = release.binary.pkg.size;
+            entry.checksum = release.binary.pkg.checksum;
+            entry.checksum_link = release.binary.pkg.checksum_link;
+            entry.metadata_link = release.binary.pkg.metadata_link;
+            entry.signature_link = release.binary.pkg.signature_link;
+            entry.updated_at = release.binary.updated_at;
+            entry.version = release.version;
+            entry.installer = release.binary.installer;
+            return entry;
+        }
+
+        Release toRelease() {
+            Release release = new Release();
+            release.release_name = release_name;
+            release.release_link = release_link;
+            release.vendor = vendor;
+            release.version = version;
+            release.binary = new Binary();
+            release.binary.jvm_impl = jvm_impl;
+            release.binary.os = os;
+            release.binary.architecture = architecture;
+            release.binary.image_type = image_type;
+            release.binary.heap_size = heap_size;
+            release.binary.project = project;
+            release.binary.scm_ref = scm_ref;
+            release.binary.updated_at = updated_at;
+            release.binary.installer = installer;
+            release.binary.pkg = new Package();
+            release.binary.pkg.name = name;
+            release.binary.pkg.link = link;
+            release.binary.pkg.size = size;
+            release.binary.pkg.checksum = checksum;
+            release.binary.pkg.checksum_link = checksum_link;
+            release.binary.pkg.metadata_link = metadata_link;
+            release.binary.pkg.signature_link = signature_link;
+            return release;
+        }
+    }
+
+    /**
+     * Leaves the download counts out of the lock file
+     */
+    @JsonIgnoreProperties("download_count")
+    private abstract static class VolatileFields {
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Maven JRE Plugin
+ * Copyright (c) 2025 Nicolò Rebaioli
+ *
+ * This file is part of Maven JRE Plugin.
+ *
+ * Maven JRE Plugin is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Maven JRE Plugin is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Maven JRE Plugin.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.github.samurai016.plugins.metrics;
+
+/**
+ * Metrics of the bundling of a single target<br>
+ * Durations are in milliseconds, sizes in bytes. Phases which did not run are left at 0
+ * (or -1 for the time to first byte).
+ *
+ * @author Nicolò Rebaioli
+ */
+@SuppressWarnings("unused")
+public class BundleMetrics {
+    /**
+     * The JRE was already extracted and unchanged
+     */
+    public static final String UP_TO_DATE = "up-to-date";
+    /**
+     * The archive was taken from the cache
+     */
+    public static final String CACHED = "cached";
+    /**
+     * The archive was downloaded
+     */
+    public static final String DOWNLOADED = "downloaded";
+    /**
+     * The archive was downloaded by a concurrent build and reused
+     */
+    public static final String SHARED = "shared";
+    /**
+     * The archive was extracted while it was downloaded
+     */
+    public static final String STREAMED = "streamed";
+    /**
+     * The JRE was linked from the shared extraction store
+     */
+    public static final String LINKED = "linked";
+    /**
+     * The bundling failed
+     */
+    public static final String FAILED = "failed";
+
+    public String target;
+    public String release_name;
+    public boolean locked;
+    public String result;
+    public String error;
+
+    public long resolve_ms;
+    public long time_to_first_byte_ms = -1;
+    public long download_ms;
+    public long downloaded_bytes;
+    public long download_bytes_per_second;
+    public long checksum_ms;
+    public long extract_ms;
+    public long extracted_files;
+    public long extracted_bytes;
+    public long filtered_files;
+    public long link_ms;
+    public long linked_files;
+    public long copied_files;
+    public long repackage_ms;
+    public long repackaged_bytes;
+    public long total_ms;
+
+    /**
+     * @param target The target, e.g. <code>linux/x64/jre</code>
+     */
+    public BundleMetrics(String target) {
+        this.target = target;
+    }
+
+    /**
+     * Record a download
+     *
+     * @param durationMillis The duration of the download
+     * @param bytes The number of bytes received from the network
+     */
+    public void downloaded(long durationMillis, long bytes) {
+        download_ms = durationMillis;
+        downloaded_bytes = bytes;
+        download_bytes_per_second = durationMillis > 0 ? bytes * 1000 / durationMillis : 0;
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Maven JRE Plugin
+ * Copyright (c) 2025 Nicolò Rebaioli
+ *
+ * This file is part of Maven JRE Plugin.
+ *
+ * Maven JRE Plugin is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Maven JRE Plugin is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Maven JRE Plugin.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.github.samurai016.plugins.metrics;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Metrics report of a goal execution<br>
+ * Written as JSON at the end of the execution, even if it fails, so that it can be collected by build dashboards.
+ *
+ * @author Nicolò Rebaioli
+ */
+@SuppressWarnings("unused")
+public class MetricsReport {
+    private static final ObjectMapper MAPPER = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    public String goal;
+    public String project;
+    public String started_at;
+    public long total_ms;
+    public final List<BundleMetrics> targets = Collections.synchronizedList(new ArrayList<>());
+
+    private final long startedNanos = System.nanoTime();
+
+    /**
+     * @param goal The goal, e.g. <code>jre-bundler</code>
+     * @param project The project, as <code>groupId:artifactId</code>
+     */
+    public MetricsReport(String goal, String project) {
+        this.goal = goal;
+        this.project = project;
+        this.started_at = Instant.now().toString();
+    }
+
+    /**
+     * Add the metrics of a target
+     *
+     * @param target The target, e.g. <code>linux/x64/jre</code>
+     * @return The metrics to fill
+     */
+    public BundleMetrics add(String target) {
+        BundleMetrics metrics = new BundleMetrics(target);
+        targets.add(metrics);
+        return metrics;
+    }
+
+    /**
+     * Write the report
+     *
+     * @param path The path of the report
+     * @throws IOException If an I/O error occurs
+     */
+    public void write(Path path) throws IOException {
+        total_ms = (System.nanoTime() - startedNanos) / 1_000_000;
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        synchronized (targets) {
+            MAPPER.writeValue(path.toFile(), this);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * Maven JRE Plugin
+ * Copyright (c) 2025 Nicolò Rebaioli
+ *
+ * This file is part of Maven JRE Plugin.
+ *
+ * Maven JRE Plugin is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Maven JRE Plugin is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Maven JRE Plugin.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.github.samurai016.plugins.repackage;
+
+/**
+ * Compression of a repackaged JRE<br>
+ * Stored and deflated entries are written to a zip archive, xz compression produces a tar.xz archive.
+ *
+ * @author Nicolò Rebaioli
+ */
+public enum Compression {
+    /**
+     * Zip archive with uncompressed entries, the fastest to extract
+     */
+    stored(".zip"),
+    /**
+     * Zip archive with deflated entries
+     */
+    deflate(".zip"),
+    /**
+     * Tar archive compressed with xz, the smallest to download
+     */
+    xz(".tar.xz");
+
+    private final String extension;
+
+    Compression(String extension) {
+        this.extension = extension;
+    }
+
+    /**
+     * Get the extension of the archives written with this compression
+     *
+     * @return The extension, including the leading dot
+     */
+    public String getExtension() {
+        return extension;
+    }
+}
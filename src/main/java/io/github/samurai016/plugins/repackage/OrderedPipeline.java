@@ -0,0 +1,118 @@
+/*
+ * Maven JRE Plugin
+ * Copyright (c) 2025 Nicolò Rebaioli
+ *
+ * This file is part of Maven JRE Plugin.
+ *
+ * Maven JRE Plugin is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Maven JRE Plugin is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Maven JRE Plugin.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.github.samurai016.plugins.repackage;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Runs tasks in parallel and hands their results to a sink in submission order<br>
+ * At most a bounded number of results are kept in memory: when the window is full,
+ * the caller waits for the oldest task before submitting a new one.
+ *
+ * @param <T> The type of the results
+ * @author Nicolò Rebaioli
+ */
+final class OrderedPipeline<T> implements AutoCloseable {
+    private final ExecutorService executor;
+    private final int window;
+    private final Sink<T> sink;
+    private final Deque<Future<T>> pending = new ArrayDeque<>();
+
+    /**
+     * @param threads The number of threads running the tasks
+     * @param sink The consumer of the results, called on the thread submitting the tasks
+     */
+    OrderedPipeline(int threads, Sink<T> sink) {
+        this.executor = Executors.newFixedThreadPool(threads);
+        this.window = threads * 2;
+        this.sink = sink;
+    }
+
+    /**
+     * Submit a task, first handing the oldest results to the sink if the window is full
+     *
+     * @param task The task
+     * @throws IOException If a task or the sink fails
+     */
+    void submit(Callable<T> task) throws IOException {
+        while (pending.size() >= window) {
+            drainOne();
+        }
+        pending.add(executor.submit(task));
+    }
+
+    /**
+     * Wait for every task and hand the remaining results to the sink
+     *
+     * @throws IOException If a task or the sink fails
+     */
+    void finish() throws IOException {
+        while (!pending.isEmpty()) {
+            drainOne();
+        }
+    }
+
+    private void drainOne() throws IOException {
+        Future<T> future = pending.removeFirst();
+        T result;
+        try {
+            result = future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException ioException) {
+                throw ioException;
+            }
+            throw new IOException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+        }
+        sink.accept(result);
+    }
+
+    @Override
+    public void close() {
+        pending.forEach(future -> future.cancel(true));
+        executor.shutdownNow();
+    }
+
+    /**
+     * Consumer of the results
+     *
+     * @param <T> The type of the results
+     */
+    @FunctionalInterface
+    interface Sink<T> {
+        /**
+         * Consume a result
+         *
+         * @param result The result
+         * @throws IOException If an I/O error occurs
+         */
+        void accept(T result) throws IOException;
+    }
+}
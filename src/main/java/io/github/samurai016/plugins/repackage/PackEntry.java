@@ -0,0 +1,41 @@
+/*
+ * Maven JRE Plugin
+ * Copyright (c) 2025 Nicolò Rebaioli
+ *
+ * This file is part of Maven JRE Plugin.
+ *
+ * Maven JRE Plugin is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Maven JRE Plugin is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Maven JRE Plugin.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.github.samurai016.plugins.repackage;
+
+import java.nio.file.Path;
+
+/**
+ * Entry of a repackaged archive
+ *
+ * @param name The name of the entry, relative to the packed directory and using <code>/</code> as separator
+ * @param path The file of the entry
+ * @param type The type of the entry
+ * @param mode The permissions of the entry, normalized to <code>0755</code> or <code>0644</code>
+ * @param size The size of the file, 0 for directories and links
+ * @param link The target of a symbolic link, null for the other entries
+ */
+record PackEntry(String name, Path path, Type type, int mode, long size, String link) {
+    /**
+     * Type of an entry
+     */
+    enum Type {
+        DIRECTORY, FILE, SYMLINK
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ * Maven JRE Plugin
+ * Copyright (c) 2025 Nicolò Rebaioli
+ *
+ * This file is part of Maven JRE Plugin.
+ *
+ * Maven JRE Plugin is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Maven JRE Plugin is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Maven JRE Plugin.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.github.samurai016.plugins.repackage;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Packs an extracted JRE into a new archive<br>
+ * The archive is deterministic: the entries are sorted by name, every entry has the same modification time
+ * and the permissions are derived from the names only, so the same JRE always gives the same bytes whatever the machine,
+ * its file system or the number of threads.
+ *
+ * @author Nicolò Rebaioli
+ */
+public class Repackager {
+    private final Compression compression;
+    private final int level;
+    private final int threads;
+    private final FileTime timestamp;
+
+    /**
+     * Create a new repackager
+     *
+     * @param compression The compression of the archive
+     * @param level The compression level, from 1 to 9 for deflate and from 0 to 9 for xz (ignored when stored)
+     * @param threads The number of threads compressing the entries
+     * @param timestamp The modification time of every entry
+     */
+    public Repackager(Compression compression, int level, int threads, FileTime timestamp) {
+        this.compression = compression;
+        this.level = level;
+        this.threads = Math.max(1, threads);
+        this.timestamp = timestamp;
+    }
+
+    /**
+     * Pack the content of a directory into an archive<br>
+     * The archive is written to a temporary file, moved to its final path once complete.
+     *
+     * @param directory The directory to pack, its content is at the root of the archive
+     * @param archive The archive to write
+     * @return The number of entries of the archive
+     * @throws IOException If an I/O error occurs
+     */
+    public int repackage(Path directory, Path archive) throws IOException {
+        List<PackEntry> entries = collect(directory);
+
+        Path parent = archive.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Path temporary = archive.resolveSibling(archive.getFileName() + ".tmp");
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(temporary), 64 * 1024)) {
+            switch (compression) {
+                case stored -> new ZipWriter(0, threads, timestamp).write(entries, out);
+                case deflate -> new ZipWriter(Math.max(1, level), threads, timestamp).write(entries, out);
+                case xz -> new TarXzWriter(level, threads, timestamp).write(entries, out);
+            }
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temporary);
+            throw e;
+        }
+        Files.move(temporary, archive, StandardCopyOption.REPLACE_EXISTING);
+        return entries.size();
+    }
+
+    /**
+     * List the entries of a directory, sorted by name one path segment at a time,
+     * so that each directory comes right before its content.
+     */
+    static List<PackEntry> collect(Path directory) throws IOException {
+        List<PackEntry> entries = new ArrayList<>();
+        Files.walkFileTree(directory, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                if (!dir.equals(directory)) {
+                    entries.add(new PackEntry(name(directory, dir), dir, PackEntry.Type.DIRECTORY, 0755, 0, null));
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                String name = name(directory, file);
+                if (attrs.isSymbolicLink()) {
+                    String link = Files.readSymbolicLink(file).toString().replace('\\', '/');
+                    entries.add(new PackEntry(name, file, PackEntry.Type.SYMLINK, 0777, 0, link));
+                } else if (attrs.isRegularFile()) {
+                    entries.add(new PackEntry(name, file, PackEntry.Type.FILE, executable(name) ? 0755 : 0644, attrs.size(), null));
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        entries.sort((a, b) -> compareNames(a.name(), b.name()));
+        return entries;
+    }
+
+    /**
+     * Check if a file is executable.<br>
+     * The files of the <code>bin</code> directory and the helper executables are, whatever the permissions of the extracted file,
+     * which are lost when the JRE is extracted on a file system without POSIX permissions (e.g. on Windows).
+     */
+    private static boolean executable(String name) {
+        String fileName = name.substring(name.lastIndexOf('/') + 1);
+        return name.startsWith("bin/") || name.contains("/bin/") || fileName.equals("jspawnhelper") || fileName.equals("jexec");
+    }
+
+    private static String name(Path directory, Path path) {
+        return directory.relativize(path).toString().replace('\\', '/');
+    }
+
+    private static int compareNames(String a, String b) {
+        String[] first = a.split("/");
+        String[] second = b.split("/");
+        for (int i = 0; i < Math.min(first.length, second.length); i++) {
+            int comparison = first[i].compareTo(second[i]);
+            if (comparison != 0) {
+                return comparison;
+            }
+        }
+        return Integer.compare(first.length, second.length);
+    }
+}
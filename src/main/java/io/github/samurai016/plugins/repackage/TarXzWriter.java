@@ -0,0 +1,259 @@
+/*
+ * Maven JRE Plugin
+ * Copyright (c) 2025 Nicolò Rebaioli
+ *
+ * This file is part of Maven JRE Plugin.
+ *
+ * Maven JRE Plugin is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Maven JRE Plugin is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Maven JRE Plugin.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.github.samurai016.plugins.repackage;
+
+import org.tukaani.xz.LZMA2Options;
+import org.tukaani.xz.UnsupportedOptionsException;
+import org.tukaani.xz.XZ;
+import org.tukaani.xz.XZOutputStream;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Deterministic tar.xz writer<br>
+ * The tar stream is cut into chunks compressed in parallel, each as an independent xz stream.
+ * Concatenated xz streams form a valid xz file, decompressed as a whole by <code>xz</code> and <code>tar</code>.<br>
+ * The dictionary is bounded by the chunk size, and the number of threads by the available memory,
+ * since each encoder of the highest presets needs hundreds of megabytes.
+ *
+ * @author Nicolò Rebaioli
+ */
+final class TarXzWriter {
+    private static final int BLOCK_SIZE = 512;
+    private static final int RECORD_SIZE = 20 * BLOCK_SIZE;
+    private static final int CHUNK_SIZE = 8 * 1024 * 1024; // 8MB
+    private static final long MAX_OCTAL_SIZE = 077777777777L;
+
+    private final LZMA2Options options;
+    private final int threads;
+    private final long mtime;
+
+    /**
+     * @param level The xz preset, from 0 to 9
+     * @param threads The maximum number of threads compressing the chunks
+     * @param timestamp The modification time of every entry
+     * @throws IOException If the preset is not valid
+     */
+    TarXzWriter(int level, int threads, FileTime timestamp) throws IOException {
+        try {
+            this.options = new LZMA2Options(level);
+            this.options.setDictSize(Math.min(options.getDictSize(), CHUNK_SIZE));
+        } catch (UnsupportedOptionsException e) {
+            throw new IOException("Invalid xz compression level: " + level, e);
+        }
+        long encoderMemory = options.getEncoderMemoryUsage() * 1024L + 2L * CHUNK_SIZE;
+        long memoryThreads = Runtime.getRuntime().maxMemory() / 2 / encoderMemory;
+        this.threads = (int) Math.max(1, Math.min(threads, memoryThreads));
+        this.mtime = Math.max(0, timestamp.toMillis() / 1000);
+    }
+
+    /**
+     * Write the entries to a tar.xz archive
+     *
+     * @param entries The entries, in the order they are written
+     * @param out The stream of the archive
+     * @throws IOException If an I/O error occurs
+     */
+    void write(List<PackEntry> entries, OutputStream out) throws IOException {
+        try (OrderedPipeline<byte[]> pipeline = new OrderedPipeline<>(threads, out::write)) {
+            ChunkOutputStream tar = new ChunkOutputStream(pipeline);
+            for (PackEntry entry : entries) {
+                writeEntry(tar, entry);
+            }
+
+            // End of archive: two zero blocks, padded to a full record
+            tar.write(new byte[2 * BLOCK_SIZE]);
+            long remainder = tar.written % RECORD_SIZE;
+            if (remainder != 0) {
+                tar.write(new byte[(int) (RECORD_SIZE - remainder)]);
+            }
+            tar.close();
+            pipeline.finish();
+        }
+    }
+
+    private void writeEntry(ChunkOutputStream tar, PackEntry entry) throws IOException {
+        String name = entry.type() == PackEntry.Type.DIRECTORY ? entry.name() + "/" : entry.name();
+        char type = switch (entry.type()) {
+            case DIRECTORY -> '5';
+            case SYMLINK -> '2';
+            case FILE -> '0';
+        };
+        String link = entry.link() != null ? entry.link() : "";
+        long size = entry.type() == PackEntry.Type.FILE ? entry.size() : 0;
+
+        // Names, links and sizes which do not fit in the header are stored in a pax extended header
+        Map<String, String> pax = new LinkedHashMap<>();
+        if (name.getBytes(StandardCharsets.UTF_8).length > 100) {
+            pax.put("path", name);
+        }
+        if (link.getBytes(StandardCharsets.UTF_8).length > 100) {
+            pax.put("linkpath", link);
+        }
+        if (size > MAX_OCTAL_SIZE) {
+            pax.put("size", Long.toString(size));
+        }
+        if (!pax.isEmpty()) {
+            byte[] records = paxRecords(pax);
+            String paxName = "PaxHeaders/" + name.substring(name.lastIndexOf('/', name.length() - 2) + 1);
+            tar.write(header(paxName, 'x', 0644, records.length, ""));
+            tar.write(records);
+            pad(tar, records.length);
+        }
+
+        tar.write(header(name, type, entry.mode(), size > MAX_OCTAL_SIZE ? 0 : size, link));
+        if (entry.type() == PackEntry.Type.FILE) {
+            long copied;
+            try (InputStream in = Files.newInputStream(entry.path())) {
+                copied = in.transferTo(tar);
+            }
+            if (copied != size) {
+                throw new IOException("File changed while it was packed: " + entry.path());
+            }
+            pad(tar, size);
+        }
+    }
+
+    private byte[] header(String name, char type, int mode, long size, String link) {
+        byte[] header = new byte[BLOCK_SIZE];
+        putString(header, 0, 100, name);
+        putOctal(header, 100, 8, mode);
+        putOctal(header, 108, 8, 0);
+        putOctal(header, 116, 8, 0);
+        putOctal(header, 124, 12, size);
+        putOctal(header, 136, 12, mtime);
+        Arrays.fill(header, 148, 156, (byte) ' ');
+        header[156] = (byte) type;
+        putString(header, 157, 100, link);
+        putString(header, 257, 6, "ustar");
+        putString(header, 263, 2, "00");
+
+        long checksum = 0;
+        for (byte b : header) {
+            checksum += b & 0xff;
+        }
+        putOctal(header, 148, 7, checksum);
+        return header;
+    }
+
+    private static byte[] paxRecords(Map<String, String> pax) {
+        StringBuilder records = new StringBuilder();
+        for (Map.Entry<String, String> record : pax.entrySet()) {
+            // Each record is "<length> <key>=<value>\n", the length counting its own digits
+            String content = " " + record.getKey() + "=" + record.getValue() + "\n";
+            int contentLength = content.getBytes(StandardCharsets.UTF_8).length;
+            int length = contentLength + 1;
+            while (Integer.toString(length).length() + contentLength != length) {
+                length = Integer.toString(length).length() + contentLength;
+            }
+            records.append(length).append(content);
+        }
+        return records.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static void putString(byte[] header, int offset, int length, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        System.arraycopy(bytes, 0, header, offset, Math.min(bytes.length, length));
+    }
+
+    private static void putOctal(byte[] header, int offset, int length, long value) {
+        String octal = Long.toOctalString(value);
+        String padded = "0".repeat(Math.max(0, length - 1 - octal.length())) + octal;
+        putString(header, offset, length - 1, padded);
+        header[offset + length - 1] = 0;
+    }
+
+    private static void pad(OutputStream out, long size) throws IOException {
+        long remainder = size % BLOCK_SIZE;
+        if (remainder != 0) {
+            out.write(new byte[(int) (BLOCK_SIZE - remainder)]);
+        }
+    }
+
+    /**
+     * Compress a chunk of the tar stream as an independent xz stream
+     */
+    private byte[] compress(byte[] chunk, int length) throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(length / 3 + 64);
+        try (XZOutputStream xz = new XZOutputStream(compressed, options, XZ.CHECK_CRC64)) {
+            xz.write(chunk, 0, length);
+        }
+        return compressed.toByteArray();
+    }
+
+    /**
+     * Stream which cuts the tar stream into chunks and submits them to the compression pipeline
+     */
+    private class ChunkOutputStream extends OutputStream {
+        private final OrderedPipeline<byte[]> pipeline;
+        private byte[] chunk = new byte[CHUNK_SIZE];
+        private int length;
+        private long written;
+
+        ChunkOutputStream(OrderedPipeline<byte[]> pipeline) {
+            this.pipeline = pipeline;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            written += len;
+            while (len > 0) {
+                int count = Math.min(len, CHUNK_SIZE - length);
+                System.arraycopy(b, off, chunk, length, count);
+                length += count;
+                off += count;
+                len -= count;
+                if (length == CHUNK_SIZE) {
+                    submit();
+                }
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (length > 0) {
+                submit();
+            }
+        }
+
+        private void submit() throws IOException {
+            byte[] full = chunk;
+            int fullLength = length;
+            pipeline.submit(() -> compress(full, fullLength));
+            chunk = new byte[CHUNK_SIZE];
+            length = 0;
+        }
+    }
+}
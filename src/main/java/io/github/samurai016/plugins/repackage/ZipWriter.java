@@ -0,0 +1,261 @@
+/*
+ * Maven JRE Plugin
+ * Copyright (c) 2025 Nicolò Rebaioli
+ *
+ * This file is part of Maven JRE Plugin.
+ *
+ * Maven JRE Plugin is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Maven JRE Plugin is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Maven JRE Plugin.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.github.samurai016.plugins.repackage;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.attribute.FileTime;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Deterministic zip writer<br>
+ * The entries are compressed in parallel, each into its own buffer, and written in order.
+ * Unix permissions are stored in the external attributes, so that the executables stay executable once extracted.
+ * Entries which do not shrink when deflated are stored.
+ *
+ * @author Nicolò Rebaioli
+ */
+final class ZipWriter {
+    private static final int LOCAL_HEADER = 0x04034b50;
+    private static final int CENTRAL_HEADER = 0x02014b50;
+    private static final int END_OF_CENTRAL_DIRECTORY = 0x06054b50;
+    private static final int STORED = 0;
+    private static final int DEFLATED = 8;
+    private static final int UTF8_FLAG = 0x0800;
+    private static final int VERSION = 20;
+    private static final int MADE_BY_UNIX = (3 << 8) | VERSION;
+    private static final long MAX_SIZE = 0xFFFFFFFFL;
+
+    private final int level;
+    private final int threads;
+    private final int dosTime;
+    private final int dosDate;
+    private final List<CentralEntry> central = new ArrayList<>();
+    private OutputStream out;
+    private long offset;
+
+    /**
+     * @param level The deflate level, 0 to store every entry
+     * @param threads The number of threads compressing the entries
+     * @param timestamp The modification time of every entry
+     */
+    ZipWriter(int level, int threads, FileTime timestamp) {
+        this.level = level;
+        this.threads = threads;
+        LocalDateTime time = LocalDateTime.ofInstant(timestamp.toInstant(), ZoneOffset.UTC);
+        if (time.getYear() < 1980) {
+            time = LocalDateTime.of(1980, 1, 1, 0, 0);
+        }
+        this.dosTime = (time.getHour() << 11) | (time.getMinute() << 5) | (time.getSecond() / 2);
+        this.dosDate = ((time.getYear() - 1980) << 9) | (time.getMonthValue() << 5) | time.getDayOfMonth();
+    }
+
+    /**
+     * Write the entries to a zip archive
+     *
+     * @param entries The entries, in the order they are written
+     * @param out The stream of the archive
+     * @throws IOException If an I/O error occurs or the archive would need the zip64 format
+     */
+    void write(List<PackEntry> entries, OutputStream out) throws IOException {
+        if (entries.size() > 0xFFFF) {
+            throw new IOException("Too many files for a zip archive, use the xz compression");
+        }
+        this.out = out;
+        try (OrderedPipeline<Data> pipeline = new OrderedPipeline<>(threads, this::writeEntry)) {
+            for (PackEntry entry : entries) {
+                pipeline.submit(() -> compress(entry));
+            }
+            pipeline.finish();
+        }
+
+        long centralOffset = offset;
+        for (CentralEntry entry : central) {
+            writeCentralEntry(entry);
+        }
+        long centralSize = offset - centralOffset;
+        checkSize(centralOffset + centralSize);
+
+        writeInt(END_OF_CENTRAL_DIRECTORY);
+        writeShort(0);
+        writeShort(0);
+        writeShort(central.size());
+        writeShort(central.size());
+        writeInt((int) centralSize);
+        writeInt((int) centralOffset);
+        writeShort(0);
+    }
+
+    /**
+     * Compute the checksum of an entry and compress it, on a worker thread
+     */
+    private Data compress(PackEntry entry) throws IOException {
+        CRC32 crc = new CRC32();
+        switch (entry.type()) {
+            case DIRECTORY -> {
+                return new Data(entry, STORED, 0, 0, null);
+            }
+            case SYMLINK -> {
+                byte[] target = entry.link().getBytes(StandardCharsets.UTF_8);
+                crc.update(target);
+                return new Data(entry, STORED, crc.getValue(), target.length, target);
+            }
+            default -> {
+                checkSize(entry.size());
+                byte[] buffer = new byte[64 * 1024];
+                if (level == 0) {
+                    // Stored files are copied by the writer, only their checksum is computed here
+                    try (InputStream in = Files.newInputStream(entry.path())) {
+                        int read;
+                        while ((read = in.read(buffer)) != -1) {
+                            crc.update(buffer, 0, read);
+                        }
+                    }
+                    return new Data(entry, STORED, crc.getValue(), entry.size(), null);
+                }
+
+                Deflater deflater = new Deflater(level, true);
+                ByteArrayOutputStream compressed = new ByteArrayOutputStream((int) Math.min(entry.size() / 2 + 64, Integer.MAX_VALUE - 8));
+                try (InputStream in = Files.newInputStream(entry.path());
+                     DeflaterOutputStream deflated = new DeflaterOutputStream(compressed, deflater, buffer.length)) {
+                    int read;
+                    while ((read = in.read(buffer)) != -1) {
+                        crc.update(buffer, 0, read);
+                        deflated.write(buffer, 0, read);
+                    }
+                } finally {
+                    deflater.end();
+                }
+                if (compressed.size() >= entry.size()) {
+                    return new Data(entry, STORED, crc.getValue(), entry.size(), null);
+                }
+                return new Data(entry, DEFLATED, crc.getValue(), compressed.size(), compressed.toByteArray());
+            }
+        }
+    }
+
+    /**
+     * Write the local header and the data of an entry, in order
+     */
+    private void writeEntry(Data data) throws IOException {
+        PackEntry entry = data.entry();
+        byte[] name = (entry.type() == PackEntry.Type.DIRECTORY ? entry.name() + "/" : entry.name()).getBytes(StandardCharsets.UTF_8);
+        long size = entry.type() == PackEntry.Type.FILE ? entry.size() : data.compressedSize();
+        checkSize(offset);
+        central.add(new CentralEntry(name, data.method(), data.crc(), data.compressedSize(), size, entry, offset));
+
+        writeInt(LOCAL_HEADER);
+        writeShort(VERSION);
+        writeShort(UTF8_FLAG);
+        writeShort(data.method());
+        writeShort(dosTime);
+        writeShort(dosDate);
+        writeInt((int) data.crc());
+        writeInt((int) data.compressedSize());
+        writeInt((int) size);
+        writeShort(name.length);
+        writeShort(0);
+        write(name);
+
+        if (data.bytes() != null) {
+            write(data.bytes());
+        } else if (entry.type() == PackEntry.Type.FILE) {
+            long copied = Files.copy(entry.path(), out);
+            if (copied != entry.size()) {
+                throw new IOException("File changed while it was packed: " + entry.path());
+            }
+            offset += copied;
+        }
+    }
+
+    private void writeCentralEntry(CentralEntry entry) throws IOException {
+        int fileType = switch (entry.entry().type()) {
+            case DIRECTORY -> 0040000;
+            case SYMLINK -> 0120000;
+            case FILE -> 0100000;
+        };
+        int msDosAttributes = entry.entry().type() == PackEntry.Type.DIRECTORY ? 0x10 : 0;
+
+        writeInt(CENTRAL_HEADER);
+        writeShort(MADE_BY_UNIX);
+        writeShort(VERSION);
+        writeShort(UTF8_FLAG);
+        writeShort(entry.method());
+        writeShort(dosTime);
+        writeShort(dosDate);
+        writeInt((int) entry.crc());
+        writeInt((int) entry.compressedSize());
+        writeInt((int) entry.size());
+        writeShort(entry.name().length);
+        writeShort(0);
+        writeShort(0);
+        writeShort(0);
+        writeShort(0);
+        writeInt(((fileType | entry.entry().mode()) << 16) | msDosAttributes);
+        writeInt((int) entry.offset());
+        write(entry.name());
+    }
+
+    private static void checkSize(long size) throws IOException {
+        if (size > MAX_SIZE) {
+            throw new IOException("The JRE is too large for a zip archive, use the xz compression");
+        }
+    }
+
+    private void writeShort(int value) throws IOException {
+        out.write(value & 0xff);
+        out.write((value >>> 8) & 0xff);
+        offset += 2;
+    }
+
+    private void writeInt(int value) throws IOException {
+        writeShort(value & 0xffff);
+        writeShort((value >>> 16) & 0xffff);
+    }
+
+    private void write(byte[] bytes) throws IOException {
+        out.write(bytes);
+        offset += bytes.length;
+    }
+
+    /**
+     * An entry ready to be written
+     *
+     * @param bytes The data of the entry, or null if the file is copied as is
+     */
+    private record Data(PackEntry entry, int method, long crc, long compressedSize, byte[] bytes) {
+    }
+
+    /**
+     * An entry of the central directory
+     */
+    private record CentralEntry(byte[] name, int method, long crc, long compressedSize, long size, PackEntry entry, long offset) {
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ * Maven JRE Plugin
+ * Copyright (c) 2025 Nicolò Rebaioli
+ *
+ * This file is part of Maven JRE Plugin.
+ *
+ * Maven JRE Plugin is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Maven JRE Plugin is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Maven JRE Plugin.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.github.samurai016.plugins;
+
+import io.github.samurai016.plugins.adoptium.models.*;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LockMojoTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void rejectsDownloadCountsBeforeTheLockFileExists() {
+        LockMojo mojo = new LockRefreshMojo();
+        mojo.version = 21;
+        mojo.jvmImpl = JVMImpl.hotspot;
+        mojo.vendor = Vendor.eclipse;
+        mojo.os = OperatingSystem.linux;
+        mojo.architecture = Architecture.x64;
+        mojo.lockfile = directory.resolve("jre.lock").toString();
+        mojo.unzipto = directory.resolve("jre-{{binary.download_count}}").toString();
+        mojo.downloadsegments = 1;
+        mojo.probetimeout = 1000;
+        mojo.connecttimeout = 1000;
+        mojo.readtimeout = 1000;
+
+        MojoExecutionException e = assertThrows(MojoExecutionException.class, mojo::checkParameters);
+        assertTrue(e.getMessage().contains("not pinned in the lock file"), e.getMessage());
+    }
+}
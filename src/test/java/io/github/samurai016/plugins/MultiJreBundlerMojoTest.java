@@ -0,0 +1,126 @@
+/*
+ * Maven JRE Plugin
+ * Copyright (c) 2025 Nicolò Rebaioli
+ *
+ * This file is part of Maven JRE Plugin.
+ *
+ * Maven JRE Plugin is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Maven JRE Plugin is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Maven JRE Plugin.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.github.samurai016.plugins;
+
+import io.github.samurai016.plugins.adoptium.models.*;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MultiJreBundlerMojoTest {
+    @TempDir
+    Path directory;
+
+    private MultiJreBundlerMojo mojo(Target... targets) {
+        MultiJreBundlerMojo mojo = new MultiJreBundlerMojo();
+        mojo.version = 21;
+        mojo.jvmImpl = JVMImpl.hotspot;
+        mojo.vendor = Vendor.eclipse;
+        mojo.targets = List.of(targets);
+        mojo.parallelism = 4;
+        mojo.outputdir = directory.resolve("out").toString();
+        mojo.unzipto = directory.resolve("jre-{{binary.os}}").toString();
+        mojo.cache = true;
+        mojo.cachedir = directory.resolve("cache").toString();
+        mojo.cachemaxsize = 2048;
+        mojo.offline = true;
+        mojo.downloadsegments = 1;
+        mojo.probetimeout = 1000;
+        mojo.connecttimeout = 1000;
+        mojo.readtimeout = 1000;
+        return mojo;
+    }
+
+    private static Target target(OperatingSystem os, Architecture architecture) {
+        Target target = new Target();
+        target.os = os;
+        target.architecture = architecture;
+        return target;
+    }
+
+    @Test
+    void defaultsImageTypeOfTargetToJre() throws Exception {
+        Target target = target(OperatingSystem.linux, Architecture.x64);
+        mojo(target).checkParameters();
+
+        assertEquals(ImageType.jre, target.imagetype);
+        assertEquals("linux/x64/jre", target.toString());
+    }
+
+    @Test
+    void bundlesTargetWithoutImageType() {
+        // Offline with an empty cache, the goal gets as far as resolving the release
+        MojoExecutionException e = assertThrows(MojoExecutionException.class,
+                () -> mojo(target(OperatingSystem.linux, Architecture.x64)).execute());
+
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            assertFalse(cause instanceof NullPointerException, "The configuration is valid");
+        }
+        assertTrue(e.getMessage().contains("linux/x64/jre"), e.getMessage());
+    }
+
+    @Test
+    void rejectsTargetWithoutOs() {
+        MojoExecutionException e = assertThrows(MojoExecutionException.class,
+                () -> mojo(target(null, Architecture.x64)).execute());
+
+        assertEquals("Every target requires an os and an architecture", e.getMessage());
+    }
+
+    @Test
+    void rejectsEmptyCache() {
+        MultiJreBundlerMojo mojo = mojo(target(OperatingSystem.linux, Architecture.x64));
+        mojo.cachemaxsize = 0;
+
+        MojoExecutionException e = assertThrows(MojoExecutionException.class, mojo::checkParameters);
+        assertTrue(e.getMessage().contains("cache maximum size must be positive"), e.getMessage());
+    }
+
+    @Test
+    void allowsDownloadCountsWithoutLockFile() throws Exception {
+        MultiJreBundlerMojo mojo = mojo(target(OperatingSystem.linux, Architecture.x64));
+        mojo.lockfile = directory.resolve("jre.lock").toString();
+        mojo.outputfilename = "jre-{{binary.download_count}}";
+
+        mojo.checkParameters();
+    }
+
+    @Test
+    void rejectsDownloadCountsWithLockFile() throws Exception {
+        MultiJreBundlerMojo mojo = mojo(target(OperatingSystem.linux, Architecture.x64));
+        mojo.lockfile = directory.resolve("jre.lock").toString();
+        Files.writeString(Path.of(mojo.lockfile), "{}");
+        mojo.outputfilename = "jre-{{binary.package.download_count}}";
+
+        MojoExecutionException e = assertThrows(MojoExecutionException.class, mojo::checkParameters);
+        assertTrue(e.getMessage().contains("not pinned in the lock file"), e.getMessage());
+    }
+
+    @Test
+    void rendersIncompleteTarget() {
+        assertEquals("null/x64/null", target(null, Architecture.x64).toString());
+    }
+}
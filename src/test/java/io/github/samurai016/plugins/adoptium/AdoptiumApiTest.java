@@ -0,0 +1,134 @@
+/*
+ * Maven JRE Plugin
+ * Copyright (c) 2025 Nicolò Rebaioli
+ *
+ * This file is part of Maven JRE Plugin.
+ *
+ * Maven JRE Plugin is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Maven JRE Plugin is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Maven JRE Plugin.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.github.samurai016.plugins.adoptium;
+
+import com.sun.net.httpserver.HttpServer;
+import io.github.samurai016.plugins.Utils;
+import io.github.samurai016.plugins.adoptium.models.*;
+import io.github.samurai016.plugins.download.Mirrors;
+import io.github.samurai016.plugins.download.RequestPolicy;
+import org.apache.hc.client5.http.HttpResponseException;
+import org.apache.maven.plugin.logging.Log;
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdoptiumApiTest {
+    private static final String RELEASES = "[{\"release_name\":\"jdk-21.0.5+11\",\"binary\":{\"os\":\"linux\",\"architecture\":\"x64\",\"image_type\":\"jre\"}}]";
+    private static final Log LOG = new SystemStreamLog();
+    private static final HttpClient CLIENT = Utils.newHttpClient();
+
+    private final List<HttpServer> servers = new ArrayList<>();
+
+    @AfterEach
+    void stopServers() {
+        servers.forEach(server -> server.stop(0));
+    }
+
+    /**
+     * Start a stand-in of the API, answering every request with a status and a body, and probes after a delay
+     */
+    private HttpServer server(int status, String body, long probeDelayMillis, AtomicInteger requests) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/", exchange -> {
+            try (exchange) {
+                if (exchange.getRequestMethod().equals("HEAD")) {
+                    Thread.sleep(probeDelayMillis);
+                    exchange.sendResponseHeaders(200, -1);
+                    return;
+                }
+                requests.incrementAndGet();
+                byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+                exchange.sendResponseHeaders(status, bytes.length);
+                exchange.getResponseBody().write(bytes);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        server.start();
+        servers.add(server);
+        return server;
+    }
+
+    private static String url(HttpServer server) {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    private static AdoptiumApi api(HttpServer... mirrors) {
+        List<String> urls = new ArrayList<>();
+        for (HttpServer mirror : mirrors) {
+            urls.add(url(mirror));
+        }
+        RequestPolicy policy = new RequestPolicy(Duration.ofSeconds(5), Duration.ofSeconds(5), 2, Duration.ZERO, Duration.ZERO, LOG);
+        return new AdoptiumApi(CLIENT, null, false, new Mirrors(CLIENT, urls, false, Duration.ofSeconds(2), LOG), policy);
+    }
+
+    private static Release[] latest(AdoptiumApi api) throws Exception {
+        return api.getLatestVersion(21, JVMImpl.hotspot, Architecture.x64, ImageType.jre, OperatingSystem.linux, Vendor.eclipse);
+    }
+
+    @Test
+    void failsOverWhenMirrorAnswersWithClientError() throws Exception {
+        // The broken mirror answers the probe first, so it is tried first
+        AtomicInteger broken = new AtomicInteger();
+        AtomicInteger healthy = new AtomicInteger();
+        HttpServer notFound = server(404, "<html>Not Found</html>", 0, broken);
+        HttpServer origin = server(200, RELEASES, 300, healthy);
+
+        Release[] releases = latest(api(origin, notFound));
+
+        assertEquals("jdk-21.0.5+11", releases[0].release_name);
+        assertEquals(1, broken.get());
+        assertEquals(1, healthy.get());
+    }
+
+    @Test
+    void failsOverWhenMirrorAnswersWithUnexpectedStatus() throws Exception {
+        AtomicInteger requests = new AtomicInteger();
+        HttpServer noContent = server(204, "", 0, requests);
+        HttpServer origin = server(200, RELEASES, 300, requests);
+
+        assertEquals("jdk-21.0.5+11", latest(api(origin, noContent))[0].release_name);
+    }
+
+    @Test
+    void clientErrorOfLastEndpointIsFinal() throws Exception {
+        AtomicInteger requests = new AtomicInteger();
+        HttpServer forbidden = server(403, "Forbidden", 0, requests);
+
+        HttpResponseException e = assertThrows(HttpResponseException.class, () -> latest(api(forbidden)));
+
+        assertEquals(403, e.getStatusCode());
+        assertTrue(e.getMessage().contains("Forbidden"), e.getMessage());
+        assertEquals(1, requests.get(), "Client errors are not retried");
+    }
+}
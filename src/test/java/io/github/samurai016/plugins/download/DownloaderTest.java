@@ -0,0 +1,211 @@
+/*
+ * Maven JRE Plugin
+ * Copyright (c) 2025 Nicolò Rebaioli
+ *
+ * This file is part of Maven JRE Plugin.
+ *
+ * Maven JRE Plugin is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Maven JRE Plugin is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Maven JRE Plugin.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.github.samurai016.plugins.download;
+
+import io.github.samurai016.plugins.Utils;
+import org.apache.hc.client5.http.HttpResponseException;
+import org.apache.maven.plugin.logging.Log;
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DownloaderTest {
+    private static final int SIZE = 4 * 1024 * 1024;
+    private static final byte[] DATA = new byte[SIZE];
+    private static final String CHECKSUM;
+    private static final Log LOG = new SystemStreamLog();
+
+    static {
+        new Random(42).nextBytes(DATA);
+        CHECKSUM = HexFormat.of().formatHex(Utils.newSha256().digest(DATA));
+    }
+
+    @TempDir
+    Path directory;
+
+    private static Downloader downloader(int segments) {
+        RequestPolicy policy = new RequestPolicy(Duration.ofSeconds(5), Duration.ofSeconds(2), 0, Duration.ZERO, Duration.ZERO, LOG);
+        return new Downloader(Utils.newHttpClient(), segments, policy, LOG);
+    }
+
+    private static Path part(Path destination) {
+        return destination.resolveSibling(destination.getFileName() + ".part");
+    }
+
+    private static Path sidecar(Path destination) {
+        return destination.resolveSibling(destination.getFileName() + ".part.properties");
+    }
+
+    @Test
+    void downloadsOverSingleStream() throws Exception {
+        try (RangeServer server = new RangeServer(DATA)) {
+            Path destination = directory.resolve("jre.tar.gz");
+            Downloader downloader = downloader(1);
+            downloader.download(server.uri("/jre.tar.gz"), destination, SIZE, CHECKSUM);
+
+            assertArrayEquals(DATA, Files.readAllBytes(destination));
+            assertEquals(List.of("GET"), server.gets());
+            assertEquals(SIZE, downloader.getReceivedBytes());
+            assertFalse(Files.exists(part(destination)));
+        }
+    }
+
+    @Test
+    void resumesPartialDownloadAndHashesItsPrefix() throws Exception {
+        try (RangeServer server = new RangeServer(DATA).truncate(1, SIZE / 2)) {
+            Path destination = directory.resolve("jre.tar.gz");
+            URI uri = server.uri("/jre.tar.gz");
+            IOException e = assertThrows(IOException.class, () -> downloader(1).download(uri, destination, SIZE, CHECKSUM));
+            assertTrue(RequestPolicy.isTransient(e), "A body cut short is retried");
+            long offset = Files.size(part(destination));
+            assertTrue(offset > 0 && offset < SIZE, "The interrupted download keeps its bytes");
+
+            // The checksum only matches if the bytes already on disk are hashed before the resumed ones
+            Downloader downloader = downloader(1);
+            downloader.download(uri, destination, SIZE, CHECKSUM);
+
+            assertArrayEquals(DATA, Files.readAllBytes(destination));
+            assertEquals("GET bytes=" + offset + "-", server.gets().get(1));
+            assertEquals(SIZE - offset, downloader.getReceivedBytes());
+        }
+    }
+
+    @Test
+    void discardsPartialDownloadWhenResumeIsAnsweredWithAnotherRange() throws Exception {
+        try (RangeServer server = new RangeServer(DATA).truncate(1, SIZE / 2).misreportRanges(1)) {
+            Path destination = directory.resolve("jre.tar.gz");
+            URI uri = server.uri("/jre.tar.gz");
+            assertThrows(IOException.class, () -> downloader(1).download(uri, destination, SIZE, CHECKSUM));
+            assertTrue(Files.exists(part(destination)));
+
+            HttpResponseException e = assertThrows(HttpResponseException.class, () -> downloader(1).download(uri, destination, SIZE, CHECKSUM));
+            assertEquals(206, e.getStatusCode());
+            assertFalse(Files.exists(part(destination)), "The next attempt starts over");
+            assertFalse(Files.exists(sidecar(destination)));
+
+            downloader(1).download(uri, destination, SIZE, CHECKSUM);
+            assertArrayEquals(DATA, Files.readAllBytes(destination));
+            assertEquals("GET", server.gets().get(2));
+        }
+    }
+
+    @Test
+    void discardsPartialDownloadWhenResumeIsRejected() throws Exception {
+        try (RangeServer truncating = new RangeServer(DATA).truncate(1, SIZE / 2);
+             RangeServer rejecting = new RangeServer(DATA).fail(1, 416)) {
+            Path destination = directory.resolve("jre.tar.gz");
+            assertThrows(IOException.class, () -> downloader(1).download(truncating.uri("/jre.tar.gz"), destination, SIZE, CHECKSUM));
+
+            URI uri = rejecting.uri("/jre.tar.gz");
+            HttpResponseException e = assertThrows(HttpResponseException.class, () -> downloader(1).download(uri, destination, SIZE, CHECKSUM));
+            assertEquals(416, e.getStatusCode());
+            assertFalse(Files.exists(part(destination)));
+            assertFalse(Files.exists(sidecar(destination)));
+
+            downloader(1).download(uri, destination, SIZE, CHECKSUM);
+            assertArrayEquals(DATA, Files.readAllBytes(destination));
+        }
+    }
+
+    @Test
+    void restartsWhenResumeIsAnsweredWithWholeBody() throws Exception {
+        try (RangeServer server = new RangeServer(DATA).ignoreRanges().truncate(1, SIZE / 2)) {
+            Path destination = directory.resolve("jre.tar.gz");
+            URI uri = server.uri("/jre.tar.gz");
+            assertThrows(IOException.class, () -> downloader(1).download(uri, destination, SIZE, CHECKSUM));
+
+            downloader(1).download(uri, destination, SIZE, CHECKSUM);
+
+            assertArrayEquals(DATA, Files.readAllBytes(destination));
+            assertTrue(server.gets().get(1).startsWith("GET bytes="), "The second attempt asks for the missing bytes");
+        }
+    }
+
+    @Test
+    void downloadsSegmentsAfterProbe() throws Exception {
+        try (RangeServer server = new RangeServer(DATA)) {
+            Path destination = directory.resolve("jre.tar.gz");
+            downloader(4).download(server.uri("/jre.tar.gz"), destination, SIZE, CHECKSUM);
+
+            assertArrayEquals(DATA, Files.readAllBytes(destination));
+            List<String> gets = server.gets();
+            assertEquals(4, gets.size());
+            // The first segment is the probe, the others follow once it is answered with a partial response
+            assertEquals("GET bytes=0-" + (SIZE / 4 - 1), gets.getFirst());
+            assertTrue(gets.containsAll(List.of(
+                    "GET bytes=" + SIZE / 4 + "-" + (SIZE / 2 - 1),
+                    "GET bytes=" + SIZE / 2 + "-" + (3 * SIZE / 4 - 1),
+                    "GET bytes=" + 3 * SIZE / 4 + "-" + (SIZE - 1))));
+        }
+    }
+
+    @Test
+    void fallsBackToSingleStreamWhenRangesAreIgnored() throws Exception {
+        try (RangeServer server = new RangeServer(DATA).ignoreRanges()) {
+            Path destination = directory.resolve("jre.tar.gz");
+            Downloader downloader = downloader(4);
+            downloader.download(server.uri("/jre.tar.gz"), destination, SIZE, CHECKSUM);
+
+            assertArrayEquals(DATA, Files.readAllBytes(destination));
+            assertEquals(1, server.gets().size());
+            assertEquals(SIZE, downloader.getReceivedBytes());
+        }
+    }
+
+    @Test
+    void failsWhenWholeBodyIsShorterThanExpected() throws Exception {
+        try (RangeServer server = new RangeServer(DATA).ignoreRanges()) {
+            Path destination = directory.resolve("jre.tar.gz");
+            // Without a checksum, only the size can tell that the body is incomplete
+            EOFException e = assertThrows(EOFException.class,
+                    () -> downloader(4).download(server.uri("/jre.tar.gz"), destination, SIZE + 1024 * 1024, null));
+            assertTrue(e.getMessage().contains("Incomplete download"));
+            assertFalse(Files.exists(destination));
+        }
+    }
+
+    @Test
+    void failsOnChecksumMismatch() throws Exception {
+        String wrong = "0".repeat(64);
+        for (int segments : new int[]{1, 4}) {
+            try (RangeServer server = new RangeServer(DATA)) {
+                Path destination = directory.resolve("jre-" + segments + ".tar.gz");
+                assertThrows(ChecksumMismatchException.class,
+                        () -> downloader(segments).download(server.uri("/jre.tar.gz"), destination, SIZE, wrong));
+
+                // The corrupt bytes are discarded, so that the next attempt starts over
+                assertFalse(Files.exists(destination));
+                assertFalse(Files.exists(part(destination)));
+            }
+        }
+    }
+}
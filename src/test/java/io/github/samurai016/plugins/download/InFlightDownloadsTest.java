@@ -0,0 +1,135 @@
+/*
+ * Maven JRE Plugin
+ * Copyright (c) 2025 Nicolò Rebaioli
+ *
+ * This file is part of Maven JRE Plugin.
+ *
+ * Maven JRE Plugin is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Maven JRE Plugin is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Maven JRE Plugin.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.github.samurai016.plugins.download;
+
+import org.apache.maven.plugin.logging.Log;
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InFlightDownloadsTest {
+    private static final Log LOG = new SystemStreamLog();
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void sharesConcurrentDownloadAndDeletesAfterLastRelease() throws Exception {
+        Path file = directory.resolve("jre.zip");
+        AtomicInteger downloads = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch finish = new CountDownLatch(1);
+        InFlightDownloads.Download download = () -> {
+            downloads.incrementAndGet();
+            started.countDown();
+            assertTrue(finish.await(5, TimeUnit.SECONDS));
+            Files.writeString(file, "jre");
+        };
+
+        CompletableFuture<InFlightDownloads.Lease> first = CompletableFuture.supplyAsync(() -> download(file, download));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<InFlightDownloads.Lease> second = CompletableFuture.supplyAsync(() -> download(file, download));
+        // The second caller joins the download in flight rather than starting its own
+        Thread.sleep(200);
+        finish.countDown();
+
+        InFlightDownloads.Lease downloader = first.get(5, TimeUnit.SECONDS);
+        InFlightDownloads.Lease waiter = second.get(5, TimeUnit.SECONDS);
+        assertEquals(1, downloads.get());
+        assertTrue(downloader.isDownloaded());
+        assertFalse(waiter.isDownloaded());
+
+        // The downloader is done first, the waiter is still using the file
+        assertFalse(downloader.release(true));
+        assertTrue(Files.exists(file));
+        assertTrue(waiter.release(true));
+        assertFalse(Files.exists(file));
+    }
+
+    @Test
+    void keepsFileWantedByAnyHolder() throws Exception {
+        Path file = directory.resolve("jre.zip");
+        InFlightDownloads.Download download = () -> Files.writeString(file, "jre");
+
+        InFlightDownloads.Lease downloader = InFlightDownloads.download(file, null, null, LOG, download);
+        InFlightDownloads.Lease waiter = InFlightDownloads.download(file, null, null, LOG, download);
+        assertFalse(waiter.isDownloaded());
+
+        assertFalse(downloader.release(false));
+        assertFalse(waiter.release(true));
+        assertTrue(Files.exists(file));
+    }
+
+    @Test
+    void downloadsAgainOnceReleased() throws Exception {
+        Path file = directory.resolve("jre.zip");
+        AtomicInteger downloads = new AtomicInteger();
+        InFlightDownloads.Download download = () -> {
+            downloads.incrementAndGet();
+            Files.writeString(file, "jre");
+        };
+
+        assertTrue(InFlightDownloads.download(file, null, null, LOG, download).release(true));
+        InFlightDownloads.Lease lease = InFlightDownloads.download(file, null, null, LOG, download);
+        assertTrue(lease.isDownloaded());
+        assertEquals(2, downloads.get());
+        assertTrue(lease.release(true));
+    }
+
+    @Test
+    void retriesWhenSharedDownloadFails() throws Exception {
+        Path file = directory.resolve("jre.zip");
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch fail = new CountDownLatch(1);
+
+        CompletableFuture<InFlightDownloads.Lease> failing = CompletableFuture.supplyAsync(() -> download(file, () -> {
+            started.countDown();
+            assertTrue(fail.await(5, TimeUnit.SECONDS));
+            throw new IOException("Connection reset");
+        }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<InFlightDownloads.Lease> retrying = CompletableFuture.supplyAsync(() -> download(file, () -> Files.writeString(file, "jre")));
+        Thread.sleep(200);
+        fail.countDown();
+
+        assertThrows(Exception.class, () -> failing.get(5, TimeUnit.SECONDS));
+        InFlightDownloads.Lease lease = retrying.get(5, TimeUnit.SECONDS);
+        assertTrue(lease.isDownloaded());
+        assertTrue(lease.release(true));
+    }
+
+    private static InFlightDownloads.Lease download(Path file, InFlightDownloads.Download download) {
+        try {
+            return InFlightDownloads.download(file, null, null, LOG, download);
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
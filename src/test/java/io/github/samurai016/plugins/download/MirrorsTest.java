@@ -0,0 +1,159 @@
+/*
+ * Maven JRE Plugin
+ * Copyright (c) 2025 Nicolò Rebaioli
+ *
+ * This file is part of Maven JRE Plugin.
+ *
+ * Maven JRE Plugin is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Maven JRE Plugin is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Maven JRE Plugin.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.github.samurai016.plugins.download;
+
+import io.github.samurai016.plugins.Utils;
+import org.apache.hc.client5.http.HttpResponseException;
+import org.apache.maven.plugin.logging.Log;
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpTimeoutException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MirrorsTest {
+    private static final int SIZE = 1024 * 1024;
+    private static final byte[] DATA = new byte[SIZE];
+    private static final String CHECKSUM;
+    private static final URI RESOURCE = URI.create("https://origin.invalid/binary/jre.tar.gz");
+    private static final Log LOG = new SystemStreamLog();
+    private static final HttpClient CLIENT = Utils.newHttpClient();
+
+    static {
+        new Random(42).nextBytes(DATA);
+        CHECKSUM = HexFormat.of().formatHex(Utils.newSha256().digest(DATA));
+    }
+
+    @TempDir
+    Path directory;
+
+    private static Mirrors mirrors(Duration probeTimeout, RangeServer... servers) {
+        List<String> urls = Arrays.stream(servers).map(RangeServer::baseUrl).toList();
+        return new Mirrors(CLIENT, urls, false, probeTimeout, LOG);
+    }
+
+    private static Downloader downloader(Duration readTimeout) {
+        RequestPolicy policy = new RequestPolicy(readTimeout, Duration.ofSeconds(2), 0, Duration.ZERO, Duration.ZERO, LOG);
+        return new Downloader(CLIENT, 1, policy, LOG);
+    }
+
+    @Test
+    void buildsCandidatesFromMirrorsInConfiguredOrder() throws Exception {
+        try (RangeServer first = new RangeServer(DATA); RangeServer second = new RangeServer(DATA)) {
+            List<URI> candidates = new Mirrors(CLIENT, List.of(first.baseUrl() + "/", second.baseUrl()), true, Duration.ofSeconds(1), LOG)
+                    .candidates(URI.create("https://origin.invalid/binary/jre.tar.gz?project=jdk"));
+
+            assertEquals(List.of(first.uri("/binary/jre.tar.gz?project=jdk"), second.uri("/binary/jre.tar.gz?project=jdk"),
+                    URI.create("https://origin.invalid/binary/jre.tar.gz?project=jdk")), candidates);
+        }
+    }
+
+    @Test
+    void ranksFastestHealthyMirrorFirstAndUnhealthyLast() throws Exception {
+        try (RangeServer slow = new RangeServer(DATA).head(200, 500);
+             RangeServer unhealthy = new RangeServer(DATA).head(503, 0);
+             RangeServer fast = new RangeServer(DATA)) {
+            Mirrors mirrors = mirrors(Duration.ofSeconds(2), slow, unhealthy, fast);
+
+            List<URI> ranked = mirrors.rank(mirrors.candidates(RESOURCE));
+
+            assertEquals(List.of(fast.uri(RESOURCE.getPath()), slow.uri(RESOURCE.getPath()), unhealthy.uri(RESOURCE.getPath())), ranked);
+        }
+    }
+
+    @Test
+    void keepsConfiguredOrderWhenNoProbeAnswersInTime() throws Exception {
+        try (RangeServer first = new RangeServer(DATA).head(200, 1000);
+             RangeServer second = new RangeServer(DATA).head(200, 1000)) {
+            Mirrors mirrors = mirrors(Duration.ofMillis(200), first, second);
+
+            List<URI> ranked = mirrors.rank(mirrors.candidates(RESOURCE));
+
+            assertEquals(List.of(first.uri(RESOURCE.getPath()), second.uri(RESOURCE.getPath())), ranked);
+        }
+    }
+
+    @Test
+    void failsOverWhenFirstMirrorAnswersWithServerError() throws Exception {
+        // The failing mirror answers the probe first, so it is tried first
+        try (RangeServer failing = new RangeServer(DATA).fail(Integer.MAX_VALUE, 503);
+             RangeServer healthy = new RangeServer(DATA).head(200, 300)) {
+            Path destination = directory.resolve("jre.tar.gz");
+            Downloader downloader = downloader(Duration.ofSeconds(5));
+
+            mirrors(Duration.ofSeconds(2), healthy, failing).fetch(RESOURCE, uri -> {
+                downloader.download(uri, destination, SIZE, CHECKSUM);
+                return null;
+            });
+
+            assertArrayEquals(DATA, Files.readAllBytes(destination));
+            assertEquals(1, failing.gets().size());
+            assertEquals(1, healthy.gets().size());
+        }
+    }
+
+    @Test
+    void failsOverWhenFirstMirrorStalls() throws Exception {
+        try (RangeServer stalling = new RangeServer(DATA).stall(3000);
+             RangeServer healthy = new RangeServer(DATA).head(200, 300)) {
+            Path destination = directory.resolve("jre.tar.gz");
+            Downloader downloader = downloader(Duration.ofMillis(500));
+
+            mirrors(Duration.ofSeconds(2), healthy, stalling).fetch(RESOURCE, uri -> {
+                downloader.download(uri, destination, SIZE, CHECKSUM);
+                return null;
+            });
+
+            assertArrayEquals(DATA, Files.readAllBytes(destination));
+            assertEquals(1, stalling.gets().size());
+            assertEquals(1, healthy.gets().size());
+        }
+    }
+
+    @Test
+    void reportsFirstFailureWhenAllMirrorsFail() throws Exception {
+        try (RangeServer unavailable = new RangeServer(DATA).fail(Integer.MAX_VALUE, 503);
+             RangeServer stalling = new RangeServer(DATA).head(200, 300).stall(3000)) {
+            Path destination = directory.resolve("jre.tar.gz");
+            Downloader downloader = downloader(Duration.ofMillis(500));
+
+            HttpResponseException e = assertThrows(HttpResponseException.class, () -> mirrors(Duration.ofSeconds(2), stalling, unavailable).fetch(RESOURCE, uri -> {
+                downloader.download(uri, destination, SIZE, CHECKSUM);
+                return null;
+            }));
+
+            assertEquals(503, e.getStatusCode());
+            assertEquals(1, e.getSuppressed().length);
+            assertInstanceOf(HttpTimeoutException.class, e.getSuppressed()[0]);
+            assertFalse(Files.exists(destination));
+        }
+    }
+}
@@ -0,0 +1,212 @@
+/*
+ * Maven JRE Plugin
+ * Copyright (c) 2025 Nicolò Rebaioli
+ *
+ * This file is part of Maven JRE Plugin.
+ *
+ * Maven JRE Plugin is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Maven JRE Plugin is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Maven JRE Plugin.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.github.samurai016.plugins.download;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Local stand-in for a download server<br>
+ * Serves the same bytes on every path, with <code>Range</code> support, and can be told to misbehave:
+ * ignore ranges, answer with another range, cut the body short, answer with an error or stall before answering.
+ *
+ * @author Nicolò Rebaioli
+ */
+class RangeServer implements AutoCloseable {
+    private static final Pattern RANGE_PATTERN = Pattern.compile("^bytes=(\\d+)-(\\d*)$");
+
+    private final HttpServer server;
+    private final byte[] data;
+    private final List<String> requests = new CopyOnWriteArrayList<>();
+    private final AtomicInteger truncated = new AtomicInteger();
+    private final AtomicInteger failed = new AtomicInteger();
+    private volatile boolean ranges = true;
+    private volatile int truncateRequests;
+    private volatile long truncateAt;
+    private volatile int failRequests;
+    private volatile int failStatus;
+    private volatile long stallMillis;
+    private final AtomicInteger misreported = new AtomicInteger();
+    private volatile int misreportRequests;
+    private volatile int headStatus = 200;
+    private volatile long headDelayMillis;
+
+    RangeServer(byte[] data) throws IOException {
+        this.data = data;
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        this.server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        this.server.createContext("/", this::handle);
+        this.server.start();
+    }
+
+    /**
+     * @param path The path of the resource
+     * @return The URL of the resource on this server
+     */
+    URI uri(String path) {
+        return URI.create(baseUrl() + path);
+    }
+
+    /**
+     * @return The base URL of this server
+     */
+    String baseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    /**
+     * Answer every request with the whole body, ignoring the <code>Range</code> header
+     */
+    RangeServer ignoreRanges() {
+        this.ranges = false;
+        return this;
+    }
+
+    /**
+     * Answer the first range requests with a <code>Content-Range</code> which does not match the requested range
+     */
+    RangeServer misreportRanges(int requests) {
+        this.misreportRequests = requests;
+        return this;
+    }
+
+    /**
+     * Cut the body of the first requests short: the full length is announced but the connection is closed early
+     */
+    RangeServer truncate(int requests, long at) {
+        this.truncateRequests = requests;
+        this.truncateAt = at;
+        return this;
+    }
+
+    /**
+     * Answer the first requests with an error
+     */
+    RangeServer fail(int requests, int status) {
+        this.failRequests = requests;
+        this.failStatus = status;
+        return this;
+    }
+
+    /**
+     * Wait before answering every <code>GET</code> request
+     */
+    RangeServer stall(long millis) {
+        this.stallMillis = millis;
+        return this;
+    }
+
+    /**
+     * Answer the <code>HEAD</code> probes with a status, after a delay
+     */
+    RangeServer head(int status, long delayMillis) {
+        this.headStatus = status;
+        this.headDelayMillis = delayMillis;
+        return this;
+    }
+
+    /**
+     * @return The requests received, as the method followed by the <code>Range</code> header if any
+     */
+    List<String> requests() {
+        return requests;
+    }
+
+    /**
+     * @return The <code>GET</code> requests received
+     */
+    List<String> gets() {
+        return requests.stream().filter(request -> request.startsWith("GET")).toList();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String range = exchange.getRequestHeaders().getFirst("Range");
+            requests.add(exchange.getRequestMethod() + (range != null ? " " + range : ""));
+            exchange.getRequestBody().readAllBytes();
+
+            if (exchange.getRequestMethod().equals("HEAD")) {
+                sleep(headDelayMillis);
+                exchange.getResponseHeaders().set("Content-Length", Integer.toString(data.length));
+                exchange.sendResponseHeaders(headStatus, -1);
+                return;
+            }
+            sleep(stallMillis);
+            if (failed.getAndIncrement() < failRequests) {
+                exchange.sendResponseHeaders(failStatus, -1);
+                return;
+            }
+
+            int start = 0;
+            int end = data.length - 1;
+            int status = 200;
+            Matcher matcher = range != null ? RANGE_PATTERN.matcher(range) : null;
+            if (ranges && matcher != null && matcher.matches()) {
+                start = Integer.parseInt(matcher.group(1));
+                end = matcher.group(2).isEmpty() ? data.length - 1 : Math.min(Integer.parseInt(matcher.group(2)), data.length - 1);
+                status = 206;
+                int reported = misreported.getAndIncrement() < misreportRequests ? start + 1 : start;
+                exchange.getResponseHeaders().set("Content-Range", "bytes " + reported + "-" + end + "/" + data.length);
+            }
+            int length = end - start + 1;
+            exchange.getResponseHeaders().set("Accept-Ranges", ranges ? "bytes" : "none");
+            exchange.sendResponseHeaders(status, length);
+
+            OutputStream body = exchange.getResponseBody();
+            if (truncated.getAndIncrement() < truncateRequests) {
+                body.write(data, start, (int) Math.min(length, truncateAt));
+                body.flush();
+                // Closing the exchange before the announced length is written drops the connection
+                return;
+            }
+            body.write(data, start, length);
+        } catch (IOException e) {
+            // The client went away, or the body was cut short on purpose
+        }
+    }
+
+    private static void sleep(long millis) {
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Maven JRE Plugin
+ * Copyright (c) 2025 Nicolò Rebaioli
+ *
+ * This file is part of Maven JRE Plugin.
+ *
+ * Maven JRE Plugin is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Maven JRE Plugin is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Maven JRE Plugin.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.github.samurai016.plugins.download;
+
+import org.apache.hc.client5.http.HttpResponseException;
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.junit.jupiter.api.Test;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.SocketException;
+import java.net.http.HttpConnectTimeoutException;
+import java.net.http.HttpTimeoutException;
+import java.nio.file.AccessDeniedException;
+import java.nio.file.FileSystemException;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.ZipException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RequestPolicyTest {
+    private static final RequestPolicy POLICY = new RequestPolicy(Duration.ofSeconds(5), Duration.ofSeconds(5), 2, Duration.ZERO, Duration.ZERO, new SystemStreamLog());
+
+    @Test
+    void networkFailuresAreTransient() {
+        assertTrue(RequestPolicy.isTransient(new HttpTimeoutException("Request timed out")));
+        assertTrue(RequestPolicy.isTransient(new HttpConnectTimeoutException("Connection timed out")));
+        assertTrue(RequestPolicy.isTransient(new ConnectException("Connection refused")));
+        assertTrue(RequestPolicy.isTransient(new SocketException("Connection reset")));
+        assertTrue(RequestPolicy.isTransient(new EOFException("Incomplete download")));
+        // The HTTP client reports a body cut short as a plain error caused by the end of the stream
+        assertTrue(RequestPolicy.isTransient(new IOException("fixed content-length: 100, bytes received: 10",
+                new IOException("fixed content-length: 100, bytes received: 10", new EOFException("EOF reached while reading")))));
+    }
+
+    @Test
+    void serverErrorsAreTransient() {
+        assertTrue(RequestPolicy.isTransient(new HttpResponseException(503, "Service Unavailable")));
+        assertTrue(RequestPolicy.isTransient(new HttpResponseException(429, "Too Many Requests")));
+        assertTrue(RequestPolicy.isTransient(new HttpResponseException(408, "Request Timeout")));
+        assertFalse(RequestPolicy.isTransient(new HttpResponseException(404, "Not Found")));
+        assertFalse(RequestPolicy.isTransient(new HttpResponseException(403, "Forbidden")));
+    }
+
+    @Test
+    void localErrorsAreFatal() {
+        assertFalse(RequestPolicy.isTransient(new IOException("No space left on device")));
+        assertFalse(RequestPolicy.isTransient(new AccessDeniedException("/opt/jre")));
+        assertFalse(RequestPolicy.isTransient(new FileSystemException("/opt/jre", null, "Read-only file system")));
+        assertFalse(RequestPolicy.isTransient(new IOException("Input/output error", new IOException("Input/output error"))));
+        assertFalse(RequestPolicy.isTransient(new ZipException("invalid CEN header")));
+        assertFalse(RequestPolicy.isTransient(new ChecksumMismatchException("Checksum mismatch")));
+    }
+
+    @Test
+    void aggregatedFailuresAreTransientIfAnyIs() {
+        IOException failure = new HttpResponseException(404, "Not Found");
+        assertFalse(RequestPolicy.isTransient(failure));
+        failure.addSuppressed(new HttpTimeoutException("Request timed out"));
+        assertTrue(RequestPolicy.isTransient(failure));
+    }
+
+    @Test
+    void retriesTransientFailures() throws Exception {
+        AtomicInteger attempts = new AtomicInteger();
+        String result = POLICY.retry("Request", () -> {
+            if (attempts.incrementAndGet() < 3) {
+                throw new ConnectException("Connection refused");
+            }
+            return "ok";
+        });
+
+        assertEquals("ok", result);
+        assertEquals(3, attempts.get());
+    }
+
+    @Test
+    void doesNotRetryFatalFailures() {
+        AtomicInteger attempts = new AtomicInteger();
+        assertThrows(AccessDeniedException.class, () -> POLICY.retry("Request", () -> {
+            attempts.incrementAndGet();
+            throw new AccessDeniedException("/opt/jre");
+        }));
+
+        assertEquals(1, attempts.get());
+    }
+}
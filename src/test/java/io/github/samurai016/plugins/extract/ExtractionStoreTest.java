@@ -0,0 +1,71 @@
+/*
+ * Maven JRE Plugin
+ * Copyright (c) 2025 Nicolò Rebaioli
+ *
+ * This file is part of Maven JRE Plugin.
+ *
+ * Maven JRE Plugin is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Maven JRE Plugin is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Maven JRE Plugin.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.github.samurai016.plugins.extract;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExtractionStoreTest {
+    private static final String CACHED = "a".repeat(64);
+    private static final String EVICTED = "b".repeat(64);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void keysEntriesByChecksumAndOptions() {
+        ExtractionStore store = new ExtractionStore(directory);
+        Path entry = store.entry(CACHED.toUpperCase(), "movetoroot=true");
+
+        assertEquals(entry, store.entry(CACHED, "movetoroot=true"));
+        assertNotEquals(entry, store.entry(CACHED, "movetoroot=false"));
+        assertNotEquals(entry, store.entry(EVICTED, "movetoroot=true"));
+        assertTrue(entry.getFileName().toString().matches(CACHED + "-[0-9a-f]{64}"));
+    }
+
+    @Test
+    void prunesEntriesOfEvictedArchives() throws Exception {
+        ExtractionStore store = new ExtractionStore(directory);
+        Path cached = Files.createDirectories(store.entry(CACHED, "options").resolve("bin"));
+        Path evicted = Files.createDirectories(store.entry(EVICTED, "options").resolve("bin"));
+        Path legacy = Files.createDirectories(directory.resolve(CACHED + "-1a2b3c"));
+        Path staging = store.newStaging();
+        Files.writeString(evicted.resolve("java"), "java");
+
+        assertEquals(4, store.prune(Set.of(CACHED)::contains));
+
+        assertTrue(Files.isDirectory(cached));
+        assertFalse(Files.exists(evicted.getParent()));
+        assertFalse(Files.exists(legacy));
+        // A staging directory may belong to a running build
+        assertTrue(Files.isDirectory(staging));
+    }
+
+    @Test
+    void prunesMissingStore() throws Exception {
+        assertEquals(0, new ExtractionStore(directory.resolve("missing")).prune(checksum -> false));
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Maven JRE Plugin
+ * Copyright (c) 2025 Nicolò Rebaioli
+ *
+ * This file is part of Maven JRE Plugin.
+ *
+ * Maven JRE Plugin is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Maven JRE Plugin is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Maven JRE Plugin.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.github.samurai016.plugins.lock;
+
+import io.github.samurai016.plugins.PathTemplate;
+import io.github.samurai016.plugins.adoptium.models.*;
+import io.github.samurai016.plugins.adoptium.models.Package;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JreLockTest {
+    private static final String KEY = "21/hotspot/eclipse/linux/x64/jre";
+
+    @TempDir
+    Path directory;
+
+    private static Release release() {
+        Release release = new Release();
+        release.release_name = "jdk-21.0.5+11";
+        release.release_link = "https://github.com/adoptium/temurin21-binaries/releases/tag/jdk-21.0.5%2B11";
+        release.vendor = "eclipse";
+        release.version = new Version();
+        release.version.major = 21;
+        release.version.minor = 0;
+        release.version.security = 5;
+        release.version.patch = 1;
+        release.version.build = 11;
+        release.version.adopt_build_numberinteger = 1;
+        release.version.openjdk_version = "21.0.5+11-LTS";
+        release.version.optional = "LTS";
+        release.version.semver = "21.0.5+11.0.LTS";
+        release.binary = new Binary();
+        release.binary.architecture = "x64";
+        release.binary.download_count = 1234;
+        release.binary.heap_size = "normal";
+        release.binary.image_type = "jre";
+        release.binary.jvm_impl = "hotspot";
+        release.binary.os = "linux";
+        release.binary.project = "jdk";
+        release.binary.scm_ref = "jdk-21.0.5+11_adopt";
+        release.binary.updated_at = new Date(1729000000000L);
+        release.binary.pkg = new Package();
+        release.binary.pkg.checksum = "0123456789abcdef";
+        release.binary.pkg.checksum_link = "https://example.org/jre.tar.gz.sha256.txt";
+        release.binary.pkg.download_count = 567;
+        release.binary.pkg.link = "https://example.org/jre.tar.gz";
+        release.binary.pkg.metadata_link = "https://example.org/jre.tar.gz.json";
+        release.binary.pkg.name = "jre.tar.gz";
+        release.binary.pkg.signature_link = "https://example.org/jre.tar.gz.sig";
+        release.binary.pkg.size = 4096;
+        release.binary.installer = new Installer();
+        release.binary.installer.checksum = "fedcba9876543210";
+        release.binary.installer.checksum_link = "https://example.org/jre.msi.sha256.txt";
+        release.binary.installer.download_count = 89;
+        release.binary.installer.link = "https://example.org/jre.msi";
+        release.binary.installer.metadata_link = "https://example.org/jre.msi.json";
+        release.binary.installer.name = "jre.msi";
+        release.binary.installer.signature_link = "https://example.org/jre.msi.sig";
+        release.binary.installer.size = 8192;
+        return release;
+    }
+
+    @Test
+    void pinsEveryTemplateVariableButDownloadCounts() throws Exception {
+        Release release = release();
+        JreLock lock = new JreLock();
+        lock.put(KEY, release);
+        Path path = directory.resolve("jre.lock");
+        lock.write(path);
+
+        Release locked = JreLock.read(path).get(KEY);
+
+        for (String variable : PathTemplate.getVariables()) {
+            if (JreLock.UNPINNED_VARIABLES.contains(variable)) {
+                continue;
+            }
+            PathTemplate template = PathTemplate.compile("{{" + variable + "}}");
+            assertEquals(template.render(release), template.render(locked), variable);
+        }
+        assertFalse(Files.readString(path).contains("download_count"), "Download counts would change the lock at every refresh");
+    }
+
+    @Test
+    void unpinnedVariablesAreTemplateVariables() {
+        assertTrue(PathTemplate.getVariables().containsAll(JreLock.UNPINNED_VARIABLES));
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * Maven JRE Plugin
+ * Copyright (c) 2025 Nicolò Rebaioli
+ *
+ * This file is part of Maven JRE Plugin.
+ *
+ * Maven JRE Plugin is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Maven JRE Plugin is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Maven JRE Plugin.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.github.samurai016.plugins.repackage;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RepackagerTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void normalizesModesWhateverThePermissionsOfTheFiles() throws Exception {
+        Path bin = Files.createDirectories(directory.resolve("bin"));
+        Path lib = Files.createDirectories(directory.resolve("lib"));
+        Files.writeString(bin.resolve("java"), "java");
+        Files.writeString(lib.resolve("jspawnhelper"), "jspawnhelper");
+        Files.writeString(lib.resolve("libjava.so"), "libjava");
+        Files.writeString(directory.resolve("release"), "JAVA_VERSION=21");
+        if (FileSystems.getDefault().supportedFileAttributeViews().contains("posix")) {
+            // Permissions as left by an extraction which lost (or added) the executable bits
+            Files.setPosixFilePermissions(bin.resolve("java"), PosixFilePermissions.fromString("rw-r--r--"));
+            Files.setPosixFilePermissions(lib.resolve("jspawnhelper"), PosixFilePermissions.fromString("rw-------"));
+            Files.setPosixFilePermissions(lib.resolve("libjava.so"), PosixFilePermissions.fromString("rwxr-xr-x"));
+        }
+
+        List<PackEntry> entries = Repackager.collect(directory);
+        Map<String, Integer> modes = entries.stream().collect(Collectors.toMap(PackEntry::name, PackEntry::mode));
+
+        assertEquals(List.of("bin", "bin/java", "lib", "lib/jspawnhelper", "lib/libjava.so", "release"),
+                entries.stream().map(PackEntry::name).toList());
+        assertEquals(0755, modes.get("bin"));
+        assertEquals(0755, modes.get("bin/java"));
+        assertEquals(0755, modes.get("lib/jspawnhelper"));
+        assertEquals(0644, modes.get("lib/libjava.so"));
+        assertEquals(0644, modes.get("release"));
+    }
+}